@@ -0,0 +1,86 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many entries per second one batched LogConsumer can drain into a LogFileSink.
+ *
+ * The queue is pre-filled before every invocation so only the consumer side is measured;
+ * the score is entries per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchedLogConsumerBenchmark {
+
+    private static final int ENTRIES_PER_INVOCATION = 100_000;
+
+    @Param({"64", "1024"})
+    private int batchSize;
+
+    @Param({"NEVER", "ON_FLUSH"})
+    private FsyncPolicy fsyncPolicy;
+
+    private BlockingQueue<LogEntry> queue;
+    private LogEntry[] entries;
+    private Path logFile;
+    private LogFileSink sink;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        queue = new ArrayBlockingQueue<>(ENTRIES_PER_INVOCATION + 1);
+        entries = new LogEntry[ENTRIES_PER_INVOCATION];
+        LogLevel[] levels = LogLevel.values();
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = LogEntry.of(levels[i % levels.length], "Producer-1", "Log message " + i + " from Producer-1");
+        }
+        logFile = Files.createTempFile("batched-consumer-bench-", ".log");
+        sink = new LogFileSink(logFile, LogFileSink.DEFAULT_BUFFER_SIZE, Duration.ofMillis(100), fsyncPolicy);
+    }
+
+    @Setup(Level.Invocation)
+    public void fillQueue() {
+        for (LogEntry entry : entries) {
+            queue.add(entry);
+        }
+        queue.add(LogEntry.poison());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        sink.close();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES_PER_INVOCATION)
+    public long drainQueue() {
+        LogConsumer consumer = new LogConsumer("BenchConsumer", queue, sink, batchSize);
+        consumer.run();
+        return consumer.getWrittenLogsCount();
+    }
+}
@@ -0,0 +1,81 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures LogEntry hand-off between producer and consumer threads through a BlockingQueue.
+ *
+ * Producers and consumers run as one JMH group so both sides of the queue are under load.
+ * offer/poll with a short timeout are used instead of put/take so that neither side can stay
+ * blocked forever once the other side stops at the end of an iteration.
+ *
+ * Three producers share the queue, so the SPSC ring buffer is covered by SpscHandoffBenchmark instead.
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockingQueueHandoffBenchmark {
+
+    @Param({"ARRAY_BLOCKING", "LINKED_BLOCKING", "MPSC_RING_BUFFER"})
+    private LogQueueType queueType;
+
+    @Param({"1024"})
+    private int capacity;
+
+    @Param({"YIELD"})
+    private WaitStrategy waitStrategy;
+
+    private BlockingQueue<LogEntry> queue;
+    private LogEntry entry;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        queue = queueType.create(capacity, waitStrategy);
+        entry = LogEntry.of(LogLevel.INFO, "Producer-1", "Benchmark message");
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(3)
+    public boolean produce(Control control) throws InterruptedException {
+        while (!control.stopMeasurement) {
+            if (queue.offer(entry, 1, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public LogEntry consume(Control control) throws InterruptedException {
+        while (!control.stopMeasurement) {
+            LogEntry taken = queue.poll(1, TimeUnit.MILLISECONDS);
+            if (taken != null) {
+                return taken;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the producer-side cost of building one log entry.
+ *
+ * pooledEntry is the LogProducer path (acquire, fill in place, release as the consumer would);
+ * formattedString is what the old String-based entry cost per message. Run with -prof gc:
+ * gc.alloc.rate.norm of pooledEntry should be ~0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogEntryCreationBenchmark {
+
+    private final LogProducer producer = new LogProducer("Producer-1", null, 0);
+    private int sequence;
+
+    @Benchmark
+    public int pooledEntry() {
+        LogEntry entry = producer.createLogEntry(sequence++);
+        int length = entry.getMessageLength();
+        entry.release();
+        return length;
+    }
+
+    @Benchmark
+    public String formattedString() {
+        String[] levels = {"INFO", "WARN", "ERROR", "DEBUG"};
+        int i = sequence++;
+        String message = String.format("Log message %d from %s", i, "Producer-1");
+        return String.format("[%s] %s - %s: %s", LocalDateTime.now(), levels[i % levels.length], "Producer-1", message);
+    }
+}
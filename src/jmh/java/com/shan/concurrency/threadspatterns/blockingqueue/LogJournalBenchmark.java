@@ -0,0 +1,84 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures LogJournal append throughput for record sizes from 64 B to 4 KB,
+ * compared with the text LogFileSink writing the same entries.
+ *
+ * Multiply ops/s by recordSize for bytes/s. Segments are deleted after every iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogJournalBenchmark {
+
+    // length field + level + timestamp + source length + "Producer-1"
+    private static final int RECORD_OVERHEAD = 4 + 1 + 8 + 2 + "Producer-1".length();
+
+    @Param({"64", "256", "1024", "4096"})
+    private int recordSize;
+
+    @Param({"NEVER", "ON_FLUSH"})
+    private FsyncPolicy fsyncPolicy;
+
+    private LogEntry entry;
+    private Path directory;
+    private LogJournal journal;
+    private LogFileSink fileSink;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        int messageLength = Math.min(LogEntry.MAX_MESSAGE_BYTES, recordSize - RECORD_OVERHEAD);
+        entry = LogEntry.of(LogLevel.INFO, "Producer-1", "x".repeat(messageLength));
+        directory = Files.createTempDirectory("journal-bench-");
+        journal = new LogJournal(directory.resolve("journal"), LogJournal.DEFAULT_SEGMENT_SIZE,
+                Duration.ofMillis(100), fsyncPolicy);
+        fileSink = new LogFileSink(directory.resolve("text.log"), LogFileSink.DEFAULT_BUFFER_SIZE,
+                Duration.ofMillis(100), fsyncPolicy);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        journal.close();
+        fileSink.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void journalAppend() throws IOException {
+        journal.append(entry);
+        journal.endBatch();
+    }
+
+    @Benchmark
+    public void fileSinkAppend() throws IOException {
+        fileSink.append(entry);
+        fileSink.endBatch();
+    }
+}
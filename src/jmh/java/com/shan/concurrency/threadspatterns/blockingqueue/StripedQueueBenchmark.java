@@ -0,0 +1,113 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares four producers sharing one ArrayBlockingQueue with four producers writing to their
+ * own stripes of a StripedQueue, drained by two consumers that drain in batches.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StripedQueueBenchmark {
+
+    private static final int PRODUCERS = 4;
+    private static final int CONSUMERS = 2;
+    private static final int BATCH_SIZE = 64;
+
+    @Param({"SHARED", "STRIPED"})
+    private String mode;
+
+    @Param({"1024"})
+    private int capacity;
+
+    private final AtomicInteger producerIndex = new AtomicInteger();
+    private final AtomicInteger consumerIndex = new AtomicInteger();
+    private BlockingQueue<LogEntry> shared;
+    private StripedQueue<LogEntry> striped;
+    private LogEntry entry;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        shared = new ArrayBlockingQueue<>(capacity);
+        striped = new StripedQueue<>(PRODUCERS, capacity / PRODUCERS);
+        producerIndex.set(0);
+        consumerIndex.set(0);
+        entry = LogEntry.of(LogLevel.INFO, "Producer-1", "Benchmark message");
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerQueue {
+        BlockingQueue<LogEntry> queue;
+
+        @Setup(Level.Iteration)
+        public void setUp(StripedQueueBenchmark benchmark) {
+            int index = benchmark.producerIndex.getAndIncrement() % PRODUCERS;
+            queue = "SHARED".equals(benchmark.mode) ? benchmark.shared : benchmark.striped.stripe(index);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ConsumerQueue {
+        BlockingQueue<LogEntry> queue;
+        final List<LogEntry> batch = new ArrayList<>(BATCH_SIZE);
+
+        @Setup(Level.Iteration)
+        public void setUp(StripedQueueBenchmark benchmark) {
+            int index = benchmark.consumerIndex.getAndIncrement() % CONSUMERS;
+            queue = "SHARED".equals(benchmark.mode) ? benchmark.shared : benchmark.striped.consumerView(index, CONSUMERS);
+        }
+    }
+
+    @Benchmark
+    @Group("striping")
+    @GroupThreads(PRODUCERS)
+    public boolean produce(ProducerQueue producer, Control control) throws InterruptedException {
+        while (!control.stopMeasurement) {
+            if (producer.queue.offer(entry, 1, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    @Group("striping")
+    @GroupThreads(CONSUMERS)
+    public int consume(ConsumerQueue consumer, Control control) throws InterruptedException {
+        while (!control.stopMeasurement) {
+            LogEntry first = consumer.queue.poll(1, TimeUnit.MILLISECONDS);
+            if (first != null) {
+                consumer.batch.add(first);
+                int drained = 1 + consumer.queue.drainTo(consumer.batch, BATCH_SIZE - 1);
+                consumer.batch.clear();
+                return drained;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.shan.concurrency.threadspatterns.completablefuture;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures end-to-end latency of composing ApiService calls.
+ *
+ * The simulated API delays dominate a single call; the benchmark shows how much
+ * composition adds on top of them and how the common pool copes with several
+ * concurrent callers (run with -t to raise the caller count).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(4)
+public class ApiServiceBenchmark {
+
+    private final ApiService apiService = new ApiService();
+
+    @Benchmark
+    public Recommendations sequentialComposition() {
+        return apiService.fetchOrderHistory("user-1")
+                .thenCompose(apiService::fetchRecommendations)
+                .join();
+    }
+
+    @Benchmark
+    public String parallelCombination() {
+        return apiService.fetchUserProfile("user-1")
+                .thenCombine(apiService.fetchOrderHistory("user-1"),
+                        (profile, history) -> profile.getName() + ":" + history.getOrders().size())
+                .join();
+    }
+}
@@ -0,0 +1,70 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and SIMD BrightnessKernel, once as a single-threaded loop over the whole
+ * image (the per-core speed-up) and once under InPlaceImageProcessor on a dedicated pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BrightnessKernelBenchmark {
+
+    @Param({"1000000"})
+    private int imageSize;
+
+    @Param({"SCALAR", "VECTOR"})
+    private BrightnessKernel kernel;
+
+    private int[] pixels;
+    private int[] target;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        pixels = new int[imageSize];
+        for (int i = 0; i < imageSize; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        target = new int[imageSize];
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] singleThreaded() {
+        kernel.apply(pixels, 0, target, 0, pixels.length);
+        return target;
+    }
+
+    @Benchmark
+    public int[] forkJoin() {
+        pool.invoke(new InPlaceImageProcessor(pixels, target, 0, pixels.length, kernel));
+        return target;
+    }
+}
@@ -0,0 +1,94 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a chain of filters once as a fused FilterChain and once filter by filter (one pass over
+ * the image per filter) on a dedicated pool.
+ *
+ * POINT is brightness -> contrast -> gamma -> grayscale (one lookup per channel when fused);
+ * WITH_BLUR inserts a 3x3 blur before gamma, which dominates the cost of either variant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    @Param({"1000"})
+    private int width;
+
+    @Param({"1000"})
+    private int height;
+
+    @Param({"POINT", "WITH_BLUR"})
+    private String chain;
+
+    private FilterChain fused;
+    private List<FilterChain> separate;
+    private int[] pixels;
+    private int[] target;
+    private int[] buffer;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        target = new int[pixels.length];
+        buffer = new int[pixels.length];
+        List<ImageFilter> filters = "POINT".equals(chain)
+                ? List.of(ImageFilter.brightness(1.2), ImageFilter.contrast(1.1), ImageFilter.gamma(1.1),
+                        ImageFilter.grayscale())
+                : List.of(ImageFilter.brightness(1.2), ImageFilter.contrast(1.1), ImageFilter.grayscale(),
+                        ImageFilter.blur(1), ImageFilter.gamma(1.1));
+        fused = new FilterChain(filters);
+        separate = filters.stream().map(FilterChain::of).toList();
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] fused() {
+        fused.apply(pool, pixels, target, width);
+        return target;
+    }
+
+    @Benchmark
+    public int[] filterByFilter() {
+        int[] input = pixels;
+        int[] output = target;
+        for (FilterChain chain : separate) {
+            chain.apply(pool, input, output, width);
+            input = output;
+            output = output == target ? buffer : target;
+        }
+        return input;
+    }
+}
@@ -0,0 +1,92 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batches per second for one pool.invoke() per image vs one ImageJobService batch.
+ *
+ * SMALL: 4096 images of 32x32, LARGE: 4 of 1024x1024, MIXED: both together.
+ * Multiply by the image or pixel count of the distribution for images/s and pixels/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageJobBenchmark {
+
+    public enum Distribution { SMALL, MIXED, LARGE }
+
+    @Param({"SMALL", "MIXED", "LARGE"})
+    private Distribution distribution;
+
+    private List<int[]> images;
+    private ForkJoinPool pool;
+    private ImageJobService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        images = new ArrayList<>();
+        if (distribution != Distribution.LARGE) {
+            for (int i = 0; i < 4096; i++) {
+                images.add(randomImage(random, 32 * 32));
+            }
+        }
+        if (distribution != Distribution.SMALL) {
+            for (int i = 0; i < 4; i++) {
+                images.add(randomImage(random, 1024 * 1024));
+            }
+        }
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        service = new ImageJobService(pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<int[]> oneAtATime() {
+        List<int[]> outputs = new ArrayList<>(images.size());
+        for (int[] image : images) {
+            int[] target = new int[image.length];
+            pool.invoke(new InPlaceImageProcessor(image, target, 0, image.length));
+            outputs.add(target);
+        }
+        return outputs;
+    }
+
+    @Benchmark
+    public ImageJobResult jobService() {
+        return service.process(images);
+    }
+
+    private static int[] randomImage(Random random, int pixels) {
+        int[] image = new int[pixels];
+        for (int i = 0; i < pixels; i++) {
+            image[i] = random.nextInt(0x1000000);
+        }
+        return image;
+    }
+}
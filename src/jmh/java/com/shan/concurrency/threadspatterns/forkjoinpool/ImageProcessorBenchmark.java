@@ -0,0 +1,81 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the brightness filter of ImageProcessor on a dedicated ForkJoinPool.
+ *
+ * A dedicated pool keeps the measurement independent of whatever else uses the common pool.
+ * Run with -prof gc to see the cost of the per-level merge arrays, which the in-place
+ * RecursiveAction variant does not have.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageProcessorBenchmark {
+
+    @Param({"5000", "1000000"})
+    private int imageSize;
+
+    private int[] pixels;
+    private int[] target;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        pixels = new int[imageSize];
+        for (int i = 0; i < imageSize; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        target = new int[imageSize];
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] brightnessFilter() {
+        return pool.invoke(new ImageProcessor(pixels, 0, pixels.length));
+    }
+
+    @Benchmark
+    public int[] brightnessFilterInPlace() {
+        pool.invoke(new InPlaceImageProcessor(pixels, target, 0, pixels.length));
+        return target;
+    }
+
+    /**
+     * Same as brightnessFilterInPlace with a ForkJoinTrace attached: the cost of observing the tree
+     */
+    @Benchmark
+    public ForkJoinTraceSummary brightnessFilterInPlaceTraced() {
+        ForkJoinTrace trace = new ForkJoinTrace();
+        trace.begin(pool);
+        pool.invoke(new InPlaceImageProcessor(pixels, target, 0, pixels.length, BrightnessKernel.preferred(),
+                SplitPolicy.adaptive(), trace));
+        return trace.end(pool);
+    }
+}
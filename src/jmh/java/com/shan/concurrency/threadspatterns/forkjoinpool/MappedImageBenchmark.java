@@ -0,0 +1,112 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File in, file out: read the whole PPM onto the heap, filter, write it back (heapCopy) vs
+ * mapping both files and streaming tiles between the mappings (mappedPpm, mappedRaw).
+ * Neither side calls force(), so both measure page-cache traffic, not disk flushes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappedImageBenchmark {
+
+    @Param({"2048"})
+    private int size;
+
+    private Path directory;
+    private Path ppmInput;
+    private Path rawInput;
+    private int headerLength;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mapped-image-benchmark-");
+        ppmInput = directory.resolve("in.ppm");
+        rawInput = directory.resolve("in.raw");
+        PixelImage ppm = ImageFiles.createPpm(ppmInput, size, size);
+        PixelImage raw = ImageFiles.createRaw(rawInput, size, size);
+        Random random = new Random(42);
+        int[] row = new int[size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                row[x] = random.nextInt(0x1000000);
+            }
+            ppm.writeRow(0, y, row, 0, size);
+            raw.writeRow(0, y, row, 0, size);
+        }
+        ppm.force();
+        raw.force();
+        headerLength = (int) (Files.size(ppmInput) - (long) size * size * 3);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long heapCopy() throws IOException {
+        byte[] bytes = Files.readAllBytes(ppmInput);
+        int[] pixels = new int[size * size];
+        for (int i = 0, b = headerLength; i < pixels.length; i++, b += 3) {
+            pixels[i] = (bytes[b] & 0xFF) << 16 | (bytes[b + 1] & 0xFF) << 8 | (bytes[b + 2] & 0xFF);
+        }
+        pool.invoke(new InPlaceImageProcessor(pixels));
+        for (int i = 0, b = headerLength; i < pixels.length; i++, b += 3) {
+            bytes[b] = (byte) (pixels[i] >> 16);
+            bytes[b + 1] = (byte) (pixels[i] >> 8);
+            bytes[b + 2] = (byte) pixels[i];
+        }
+        Path output = directory.resolve("heap-out.ppm");
+        Files.write(output, bytes);
+        return bytes.length;
+    }
+
+    @Benchmark
+    public PixelImage mappedPpm() throws IOException {
+        PixelImage input = ImageFiles.openPpm(ppmInput);
+        PixelImage output = ImageFiles.createPpm(directory.resolve("mapped-out.ppm"), size, size);
+        pool.invoke(new TiledImageProcessor(input, output, BrightnessKernel.preferred()));
+        return output;
+    }
+
+    @Benchmark
+    public PixelImage mappedRaw() throws IOException {
+        PixelImage input = ImageFiles.openRaw(rawInput, size, size);
+        PixelImage output = ImageFiles.createRaw(directory.resolve("mapped-out.raw"), size, size);
+        pool.invoke(new TiledImageProcessor(input, output, BrightnessKernel.preferred()));
+        return output;
+    }
+}
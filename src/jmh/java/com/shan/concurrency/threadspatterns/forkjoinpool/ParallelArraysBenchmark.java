@@ -0,0 +1,112 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelArrays reduce, scan and histogram vs their IntStream.parallel() / Arrays.parallelPrefix
+ * equivalents, plus filter-then-measure in two passes vs ImageStatistics.filterAndMeasure.
+ *
+ * The stream baselines run in the common pool; ParallelArrays gets a pool of the same size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelArraysBenchmark {
+
+    @Param({"1000000", "16000000"})
+    private int size;
+
+    private int[] pixels;
+    private int[] scratch;
+    private int[] target;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        pixels = new int[size];
+        for (int i = 0; i < size; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        scratch = new int[size];
+        target = new int[size];
+        pool = new ForkJoinPool(Math.max(1, ForkJoinPool.getCommonPoolParallelism()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long sumParallelArrays() {
+        return ParallelArrays.sum(pool, pixels);
+    }
+
+    @Benchmark
+    public long sumIntStream() {
+        return Arrays.stream(pixels).parallel().asLongStream().sum();
+    }
+
+    @Benchmark
+    public int[] prefixSumParallelArrays() {
+        System.arraycopy(pixels, 0, scratch, 0, size);
+        ParallelArrays.prefixSum(pool, scratch);
+        return scratch;
+    }
+
+    @Benchmark
+    public int[] prefixSumParallelPrefix() {
+        System.arraycopy(pixels, 0, scratch, 0, size);
+        Arrays.parallelPrefix(scratch, Integer::sum);
+        return scratch;
+    }
+
+    @Benchmark
+    public long[] histogramParallelArrays() {
+        return ParallelArrays.histogram(pool, pixels, ImageStatistics.LUMA_LEVELS, ImageStatistics::luma);
+    }
+
+    @Benchmark
+    public long[] histogramIntStream() {
+        return Arrays.stream(pixels).parallel()
+                .collect(() -> new long[ImageStatistics.LUMA_LEVELS],
+                        (counts, pixel) -> counts[ImageStatistics.luma(pixel)]++,
+                        (left, right) -> {
+                            for (int level = 0; level < left.length; level++) {
+                                left[level] += right[level];
+                            }
+                        });
+    }
+
+    @Benchmark
+    public ImageStatistics filterThenMeasure() {
+        pool.invoke(new InPlaceImageProcessor(pixels, target, 0, size));
+        return ImageStatistics.measure(pool, target);
+    }
+
+    @Benchmark
+    public ImageStatistics filterAndMeasure() {
+        return ImageStatistics.filterAndMeasure(pool, pixels, target, BrightnessKernel.preferred());
+    }
+}
@@ -0,0 +1,84 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a short async API callback while a background thread keeps an image pool busy.
+ * SHARED runs the callbacks on the image pool (as with commonPool()); ISOLATED gives them the
+ * registry's separate "api" pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PoolIsolationBenchmark {
+
+    public enum Isolation { SHARED, ISOLATED }
+
+    @Param({"SHARED", "ISOLATED"})
+    private Isolation isolation;
+
+    private ForkJoinPoolRegistry registry;
+    private ForkJoinPool apiPool;
+    private Thread imageLoad;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        registry = new ForkJoinPoolRegistry(new StandardEnvironment());
+        ForkJoinPool imagePool = registry.register(ForkJoinPoolRegistry.IMAGE_POOL, processors, false,
+                ForkJoinPoolRegistry.namedThreadFactory(ForkJoinPoolRegistry.IMAGE_POOL));
+        apiPool = isolation == Isolation.SHARED ? imagePool
+                : registry.register(ForkJoinPoolRegistry.API_POOL, processors, true,
+                ForkJoinPoolRegistry.namedThreadFactory(ForkJoinPoolRegistry.API_POOL));
+
+        Random random = new Random(42);
+        int[] pixels = new int[2048 * 2048];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        running = true;
+        imageLoad = new Thread(() -> {
+            while (running) {
+                imagePool.invoke(new InPlaceImageProcessor(pixels, pixels, 0, pixels.length,
+                        BrightnessKernel.SCALAR, SplitPolicy.fixed(16 * 1024)));
+            }
+        }, "image-load");
+        imageLoad.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        imageLoad.join();
+        registry.close();
+    }
+
+    @Benchmark
+    public String apiCallback() {
+        return CompletableFuture.supplyAsync(() -> "profile", apiPool)
+                .thenApply(profile -> profile + ":orders")
+                .join();
+    }
+}
@@ -0,0 +1,70 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sweeps image size and pool parallelism for the fixed 1000-pixel threshold and the adaptive
+ * SplitPolicy, running the in-place brightness filter with the scalar kernel.
+ *
+ * The fixed threshold creates imageSize / 1000 leaves whatever the pool size; the adaptive
+ * policy stops splitting once every worker has enough queued work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitPolicyBenchmark {
+
+    @Param({"10000", "1000000", "4000000"})
+    private int imageSize;
+
+    @Param({"1", "2", "4"})
+    private int parallelism;
+
+    @Param({"FIXED_1000", "ADAPTIVE"})
+    private String policy;
+
+    private int[] pixels;
+    private SplitPolicy splitPolicy;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        pixels = new int[imageSize];
+        for (int i = 0; i < imageSize; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        splitPolicy = "ADAPTIVE".equals(policy) ? SplitPolicy.adaptive() : SplitPolicy.fixed(1000);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] inPlace() {
+        pool.invoke(new InPlaceImageProcessor(pixels, pixels, 0, pixels.length, BrightnessKernel.SCALAR, splitPolicy));
+        return pixels;
+    }
+}
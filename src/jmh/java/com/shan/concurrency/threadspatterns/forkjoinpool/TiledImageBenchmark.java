@@ -0,0 +1,83 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brightness filter over a 2D image: flat index ranges (InPlaceImageProcessor) vs
+ * TiledImageProcessor on heap and off-heap storage, with narrow and full-width 64 KB tiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TiledImageBenchmark {
+
+    @Param({"2048"})
+    private int size;
+
+    @Param({"256", "2048"})
+    private int tileWidth;
+
+    private int tileHeight;
+    private int[] pixels;
+    private PixelImage heapImage;
+    private PixelImage offHeapImage;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        pixels = new int[size * size];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(0x1000000);
+        }
+        heapImage = PixelImage.wrap(pixels.clone(), size, size);
+        offHeapImage = PixelImage.offHeap(size, size);
+        for (int y = 0; y < size; y++) {
+            offHeapImage.writeRow(0, y, pixels, y * size, size);
+        }
+        tileHeight = Math.max(1, 16 * 1024 / tileWidth);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] flat() {
+        pool.invoke(new InPlaceImageProcessor(pixels));
+        return pixels;
+    }
+
+    @Benchmark
+    public PixelImage tiledHeap() {
+        pool.invoke(new TiledImageProcessor(heapImage, heapImage, BrightnessKernel.preferred(), tileWidth, tileHeight));
+        return heapImage;
+    }
+
+    @Benchmark
+    public PixelImage tiledOffHeap() {
+        pool.invoke(new TiledImageProcessor(offHeapImage, offHeapImage, BrightnessKernel.preferred(), tileWidth, tileHeight));
+        return offHeapImage;
+    }
+}
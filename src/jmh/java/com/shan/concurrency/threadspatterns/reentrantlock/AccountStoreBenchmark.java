@@ -0,0 +1,56 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random transfers between 1M accounts of one AccountStore, by stripe count. One stripe is a
+ * single global lock; throughput should grow with stripes until it is limited by cores.
+ *
+ * Pass the thread count with -t, e.g. -t 8.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountStoreBenchmark {
+
+    @Param({"1000000"})
+    private int accounts;
+
+    @Param({"1", "16", "256"})
+    private int stripes;
+
+    private AccountStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new AccountStore(accounts, 1_000_000, stripes);
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return store.transfer(random.nextInt(accounts), random.nextInt(accounts), 1 + random.nextInt(1000));
+    }
+
+    @Benchmark
+    public long readBalance() {
+        return store.getBalance(ThreadLocalRandom.current().nextInt(accounts));
+    }
+}
@@ -0,0 +1,66 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lock contention on a single BankAccount shared by depositing, withdrawing
+ * and balance-reading threads.
+ *
+ * BankAccount simulates 200 ms of processing inside the critical section, so expect
+ * operations per second rather than per microsecond; the interesting number is how the
+ * sample-time percentiles grow with the queue of waiting threads and with fairness.
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BankAccountContentionBenchmark {
+
+    @Param({"false", "true"})
+    private boolean fair;
+
+    private BankAccount account;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        account = new BankAccount("ACC-BENCH", 1_000_000.0, fair);
+    }
+
+    @Benchmark
+    @Group("account")
+    @GroupThreads(2)
+    public void deposit() {
+        account.deposit(100.0, "TX-DEPOSIT");
+    }
+
+    @Benchmark
+    @Group("account")
+    @GroupThreads(2)
+    public void withdraw() {
+        account.withdraw(100.0, "TX-WITHDRAW");
+    }
+
+    @Benchmark
+    @Group("account")
+    @GroupThreads(1)
+    public double getBalance() {
+        return account.getBalance();
+    }
+}
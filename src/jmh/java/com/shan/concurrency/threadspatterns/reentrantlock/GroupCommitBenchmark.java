@@ -0,0 +1,68 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One hot BankAccount, every thread alternating deposits and withdrawals: each transaction
+ * taking the lock itself vs GroupCommitProcessor committing whatever is queued as one batch.
+ * With processingMillis = 1 every lock acquisition also pays a simulated 1 ms write.
+ *
+ * Pass the thread count with -t, e.g. -t 16; batches only form when threads contend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    @Param({"0", "1"})
+    private int processingMillis;
+
+    private BankAccount account;
+    private GroupCommitProcessor processor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        account = new BankAccount("ACC-BENCH", 1_000_000.0, false, Duration.ofMillis(processingMillis));
+        processor = new GroupCommitProcessor();
+    }
+
+    @State(Scope.Thread)
+    public static class Sequence {
+        private long next;
+
+        BankTransaction nextTransaction(Account account) {
+            long id = next++;
+            BankTransaction.TransactionType type = (id & 1) == 0
+                    ? BankTransaction.TransactionType.DEPOSIT
+                    : BankTransaction.TransactionType.WITHDRAW;
+            return new BankTransaction(account, "TX-BENCH", type, 1.0);
+        }
+    }
+
+    @Benchmark
+    public void direct(Sequence sequence) {
+        sequence.nextTransaction(account).run();
+    }
+
+    @Benchmark
+    public boolean groupCommit(Sequence sequence) {
+        return processor.submit(sequence.nextTransaction(account)).join();
+    }
+}
@@ -0,0 +1,69 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One account shared by every benchmark thread: ReentrantLock-based BankAccount (without the
+ * simulated 200 ms of work, so only the lock is measured) vs CAS-based LockFreeAccount.
+ *
+ * Pass the thread count with -t, e.g. for 1 to 64 threads:
+ * for t in 1 2 4 8 16 32 64; do mvn -Pjmh exec:exec -Djmh.args="LedgerContention -t $t"; done
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerContentionBenchmark {
+
+    public enum Implementation { REENTRANT_LOCK, FAIR_REENTRANT_LOCK, LOCK_FREE }
+
+    @Param({"REENTRANT_LOCK", "FAIR_REENTRANT_LOCK", "LOCK_FREE"})
+    private Implementation implementation;
+
+    private BankAccount lockedAccount;
+    private LockFreeAccount lockFreeAccount;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        lockedAccount = new BankAccount("ACC-BENCH", 1_000_000.0,
+                implementation == Implementation.FAIR_REENTRANT_LOCK, Duration.ZERO);
+        lockFreeAccount = new LockFreeAccount("ACC-BENCH", 100_000_000L);
+    }
+
+    /**
+     * One deposit followed by one withdrawal of the same amount
+     */
+    @Benchmark
+    public void depositWithdraw() {
+        if (implementation == Implementation.LOCK_FREE) {
+            lockFreeAccount.deposit(10_000);
+            lockFreeAccount.withdraw(10_000);
+        } else {
+            lockedAccount.deposit(100.0, "TX-DEPOSIT");
+            lockedAccount.withdraw(100.0, "TX-WITHDRAW");
+        }
+    }
+
+    @Benchmark
+    public double readBalance() {
+        return implementation == Implementation.LOCK_FREE
+                ? lockFreeAccount.getBalanceCents()
+                : lockedAccount.getBalance();
+    }
+}
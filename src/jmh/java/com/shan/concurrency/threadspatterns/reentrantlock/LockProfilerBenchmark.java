@@ -0,0 +1,59 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of profiling: deposit/withdraw pairs on one BankAccount without simulated processing,
+ * guarded by a plain ReentrantLock (holdSampleInterval 0) vs an InstrumentedLock timing every
+ * hold (1) or one uncontended hold in 16.
+ *
+ * Pass the thread count with -t, e.g. -t 1 for the uncontended fast path and -t 8 for contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LockProfilerBenchmark {
+
+    @Param({"0", "1", "16"})
+    private int holdSampleInterval;
+
+    private LockProfiler profiler;
+    private BankAccount account;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        profiler = new LockProfiler(Duration.ZERO, Math.max(1, holdSampleInterval));
+        account = holdSampleInterval > 0
+                ? new BankAccount("ACC-BENCH", 1_000_000.0, false, Duration.ZERO, profiler)
+                : new BankAccount("ACC-BENCH", 1_000_000.0, false, Duration.ZERO);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        profiler.close();
+    }
+
+    @Benchmark
+    public void depositWithdraw() {
+        account.deposit(1.0, "TX-DEPOSIT");
+        account.withdraw(1.0, "TX-WITHDRAW");
+    }
+}
@@ -0,0 +1,64 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One shared account under a read/write mix: every operation is a getBalance() with probability
+ * readPercent, otherwise a deposit or withdrawal with equal odds, so the balance stays far from
+ * zero and no write takes the insufficient-funds path. Compares the AccountLocking variants without
+ * simulated processing time.
+ *
+ * Pass the thread count with -t, e.g. -t 8.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadMostlyAccountBenchmark {
+
+    @Param({"REENTRANT_LOCK", "READ_WRITE_LOCK", "STAMPED_LOCK"})
+    private AccountLocking locking;
+
+    @Param({"90", "99"})
+    private int readPercent;
+
+    private Account account;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        account = locking.create("ACC-BENCH", 1_000_000.0, Duration.ZERO);
+    }
+
+    @Benchmark
+    public double mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        if (roll < readPercent) {
+            return account.getBalance();
+        }
+        // A separate coin flip: deriving it from roll would make every write at 99% a withdrawal
+        if (random.nextBoolean()) {
+            account.deposit(1.0, "TX-DEPOSIT");
+        } else {
+            account.withdraw(1.0, "TX-WITHDRAW");
+        }
+        return 0;
+    }
+}
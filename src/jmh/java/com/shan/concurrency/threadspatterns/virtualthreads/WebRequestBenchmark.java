@@ -0,0 +1,58 @@
+package com.shan.concurrency.threadspatterns.virtualthreads;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures WebRequest throughput on platform threads versus virtual threads.
+ *
+ * Each invocation submits a batch of requests and waits for all of them, so the
+ * reported score is requests per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class WebRequestBenchmark {
+
+    private static final int REQUESTS_PER_BATCH = 1000;
+    private static final int PLATFORM_POOL_SIZE = 100;
+
+    @Param({"Platform", "Virtual"})
+    private String threadType;
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS_PER_BATCH)
+    public void handleBatch() throws InterruptedException {
+        try (ExecutorService executor = newExecutor()) {
+            for (int i = 1; i <= REQUESTS_PER_BATCH; i++) {
+                executor.submit(new WebRequest(i, threadType));
+            }
+            executor.shutdown();
+            executor.awaitTermination(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private ExecutorService newExecutor() {
+        return switch (threadType) {
+            case "Platform" -> Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+            case "Virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+            default -> throw new IllegalArgumentException("Unknown thread type: " + threadType);
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for bounded, lock-free ring-buffer queues.
+ *
+ * Elements live in a power-of-two array indexed by two ever-increasing sequences:
+ * - tail: next slot a producer will fill
+ * - head: next slot the consumer will read
+ * The queue is full when tail - head == capacity and empty when they are equal.
+ *
+ * Subclasses implement the non-blocking offer()/poll()/peek(); this class turns them into the
+ * blocking BlockingQueue operations by waiting with the configured WaitStrategy instead of a lock
+ * and condition variables.
+ *
+ * iterator() returns a weakly consistent snapshot of the elements between head and tail, so
+ * contains(), toArray() and friends work; elements cannot be removed through it.
+ */
+public abstract class AbstractRingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    protected final Object[] buffer;
+    protected final int capacity;
+    protected final int mask;
+    protected final Sequence head = new Sequence(0);
+    protected final Sequence tail = new Sequence(0);
+    private final WaitStrategy waitStrategy;
+
+    protected AbstractRingBufferQueue(int requestedCapacity, WaitStrategy waitStrategy) {
+        if (requestedCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + requestedCapacity);
+        }
+        this.capacity = roundUpToPowerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.buffer = new Object[capacity];
+        this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        Objects.requireNonNull(e);
+        int attempt = 0;
+        while (!offer(e)) {
+            checkInterrupted();
+            attempt = waitStrategy.idle(attempt);
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (offer(e)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        while (!offer(e)) {
+            checkInterrupted();
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            attempt = waitStrategy.idle(attempt);
+        }
+        return true;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        int attempt = 0;
+        E e;
+        while ((e = poll()) == null) {
+            checkInterrupted();
+            attempt = waitStrategy.idle(attempt);
+        }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e = poll();
+        if (e != null) {
+            return e;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        while ((e = poll()) == null) {
+            checkInterrupted();
+            if (System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+            attempt = waitStrategy.idle(attempt);
+        }
+        return e;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        int drained = 0;
+        E e;
+        while (drained < maxElements && (e = poll()) != null) {
+            c.add(e);
+            drained++;
+        }
+        return drained;
+    }
+
+    @Override
+    public int size() {
+        // Read head first: tail only grows, so the difference can never be negative by more than a race
+        long currentHead = head.getAcquire();
+        long currentTail = tail.getAcquire();
+        long size = currentTail - currentHead;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.getAcquire() >= tail.getAcquire();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Weakly consistent: every element returned was in the queue at some point during the call,
+     * elements added or consumed meanwhile may or may not show up. remove() is not supported.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        long from = head.getAcquire();
+        long to = tail.getAcquire();
+        List<E> snapshot = new ArrayList<>((int) Math.max(0, Math.min(to - from, capacity)));
+        for (long sequence = Math.max(from, to - capacity); sequence < to; sequence++) {
+            Object e = SLOT.getAcquire(buffer, (int) sequence & mask);
+            // null: claimed but not yet published, or already consumed. Once head has passed the
+            // sequence the slot may hold a newer element that a later sequence will pick up
+            if (e != null && head.getAcquire() <= sequence) {
+                snapshot.add((E) e);
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + size() + ", capacity=" + capacity
+                + ", waitStrategy=" + waitStrategy + "]";
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        int rounded = Integer.highestOneBit(value);
+        if (rounded == value) {
+            return value;
+        }
+        if (rounded == 1 << 30) {
+            throw new IllegalArgumentException("Capacity too large: " + value);
+        }
+        return rounded << 1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * BackpressurePolicy decides what LogProducer does when the queue is full.
+ *
+ * Implementations:
+ * - BlockingBackpressure: put() - waits as long as it takes (the classic behavior)
+ * - TimeoutBackpressure: offer() with a bounded wait, then drop
+ * - DropOldestBackpressure: evict the oldest queued entries to make room for the newest
+ * - SamplingBackpressure: keep every ERROR, keep a fraction of the other levels, then delegate
+ * - SpillToDiskBackpressure: write entries that do not fit to a local LogSink
+ *
+ * Only BlockingBackpressure can stall the calling thread indefinitely. A policy owns any entry
+ * it does not enqueue and releases it back to its pool.
+ */
+public interface BackpressurePolicy {
+
+    OfferOutcome offer(BlockingQueue<LogEntry> queue, LogEntry entry) throws InterruptedException;
+
+    /**
+     * Called once per producer; reject queues the policy cannot work with
+     */
+    default void checkQueue(BlockingQueue<LogEntry> queue) {
+    }
+}
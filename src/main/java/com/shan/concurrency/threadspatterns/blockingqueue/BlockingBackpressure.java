@@ -0,0 +1,16 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * BlockingBackpressure waits in put() until the consumers make room. Nothing is ever lost,
+ * but a slow sink stalls the producing thread for as long as it is slow.
+ */
+public class BlockingBackpressure implements BackpressurePolicy {
+
+    @Override
+    public OfferOutcome offer(BlockingQueue<LogEntry> queue, LogEntry entry) throws InterruptedException {
+        queue.put(entry);
+        return OfferOutcome.ENQUEUED;
+    }
+}
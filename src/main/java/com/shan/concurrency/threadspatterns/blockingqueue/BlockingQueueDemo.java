@@ -1,8 +1,16 @@
 package com.shan.concurrency.threadspatterns.blockingqueue;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -21,16 +29,39 @@ import java.util.concurrent.TimeUnit;
  * 3. Consumers call take() - blocks if queue is empty
  * 4. Thread-safe without explicit synchronization
  * 5. Use poison pill pattern for graceful shutdown
+ * 6. Batched consumers use drainTo() to take many entries per lock acquisition
+ * 7. Any BlockingQueue works - including the lock-free ring buffers from LogQueueType
+ * 8. LogPipeline replaces poison pills: seal the queue, let consumers drain it and exit
+ * 9. LogJournal persists entries in memory-mapped segments that LogJournalReader can replay
+ * 10. ConsumerAutoscaler adds and parks consumers to keep queue latency within an SLO
+ * 11. StripedQueue gives each producer its own queue; consumers steal from the fullest one
+ * 12. BackpressurePolicy decides what a producer does when the queue is full instead of blocking
+ * 13. LogPipelineMetrics records produce, queue and write latency percentiles per entry
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class BlockingQueueDemo {
 
     private static final int QUEUE_CAPACITY = 5;
     private static final int NUMBER_OF_PRODUCERS = 3;
     private static final int LOGS_PER_PRODUCER = 4;
+    private static final int BATCH_SIZE = 256;
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(200);
+
+    private final LogPipelineMetrics metrics;
 
     public void demonstrate() {
+        demonstrateSimpleWriter();
+        demonstrateBatchedWriter(LogQueueType.MPSC_RING_BUFFER);
+        demonstratePipeline();
+        demonstrateJournal();
+        demonstrateAutoscaling();
+        demonstrateStripedQueues();
+        demonstrateBackpressure();
+    }
+
+    private void demonstrateSimpleWriter() {
         log.info("=== BlockingQueue Demo: Producer-Consumer Log Writer ===");
         log.info("Scenario: {} producers generating logs, 1 consumer writing to file (Queue capacity: {})",
                 NUMBER_OF_PRODUCERS, QUEUE_CAPACITY);
@@ -75,4 +106,324 @@ public class BlockingQueueDemo {
             }
         }
     }
+
+    /**
+     * Same pipeline, but the consumer drains batches into a real file through LogFileSink.
+     * Three producers and one consumer, so the MPSC ring buffer is a valid choice here.
+     */
+    private void demonstrateBatchedWriter(LogQueueType queueType) {
+        log.info("=== BlockingQueue Demo: Batched File Writer (drainTo) ===");
+
+        BlockingQueue<LogEntry> logQueue = queueType.create(BATCH_SIZE);
+        log.info("Queue implementation: {} ({})", queueType, logQueue.getClass().getSimpleName());
+        ExecutorService consumerExecutor = Executors.newSingleThreadExecutor();
+        ExecutorService producerExecutor = Executors.newFixedThreadPool(NUMBER_OF_PRODUCERS);
+        Path logFile = null;
+
+        try {
+            logFile = Files.createTempFile("blockingqueue-demo-", ".log");
+            try (LogFileSink sink = new LogFileSink(logFile, LogFileSink.DEFAULT_BUFFER_SIZE,
+                    FLUSH_INTERVAL, FsyncPolicy.ON_FLUSH)) {
+
+                LogConsumer consumer = new LogConsumer("BatchedFileWriter", logQueue, sink, BATCH_SIZE);
+                consumerExecutor.submit(consumer);
+
+                for (int i = 1; i <= NUMBER_OF_PRODUCERS; i++) {
+                    producerExecutor.submit(new LogProducer("Producer-" + i, logQueue, LOGS_PER_PRODUCER));
+                }
+
+                // Wait for producers instead of sleeping, then stop the consumer
+                producerExecutor.shutdown();
+                producerExecutor.awaitTermination(30, TimeUnit.SECONDS);
+                logQueue.put(LogEntry.poison());
+
+                consumerExecutor.shutdown();
+                consumerExecutor.awaitTermination(30, TimeUnit.SECONDS);
+
+                log.info("Batched writer wrote {} logs to {}", consumer.getWrittenLogsCount(), logFile);
+            }
+            log.info("Log file size: {} bytes", Files.size(logFile));
+
+        } catch (IOException e) {
+            log.error("Batched writer demo failed", e);
+        } catch (InterruptedException e) {
+            log.error("Demo interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            producerExecutor.shutdownNow();
+            consumerExecutor.shutdownNow();
+            deleteQuietly(logFile);
+            log.info("=== Batched File Writer Demo Completed ===");
+        }
+    }
+
+    /**
+     * Scale consumers up and down while producers run, then shut down without poison pills
+     */
+    private void demonstratePipeline() {
+        log.info("=== BlockingQueue Demo: Pipeline with Dynamic Consumers ===");
+
+        Path logDir = null;
+        try {
+            logDir = Files.createTempDirectory("blockingqueue-pipeline-");
+            Path dir = logDir;
+            LogPipeline pipeline = new LogPipeline("Logs", LogQueueType.ARRAY_BLOCKING.create(BATCH_SIZE), BATCH_SIZE,
+                    consumerName -> new LogFileSink(dir.resolve(consumerName + ".log"),
+                            LogFileSink.DEFAULT_BUFFER_SIZE, FLUSH_INTERVAL, FsyncPolicy.NEVER), metrics);
+
+            String first = pipeline.addConsumer();
+            for (int i = 1; i <= NUMBER_OF_PRODUCERS; i++) {
+                pipeline.submitProducer(new LogProducer("Producer-" + i, pipeline.getQueue(), LOGS_PER_PRODUCER, metrics));
+            }
+
+            // Scale out while the producers are busy, then retire the first consumer
+            Thread.sleep(300);
+            pipeline.addConsumer();
+            Thread.sleep(300);
+            pipeline.removeConsumer(first);
+
+            boolean finished = pipeline.close(Duration.ofSeconds(30));
+            log.info("Pipeline closed (clean: {}). Logs written: {} of {}",
+                    finished, pipeline.getWrittenLogsCount(), NUMBER_OF_PRODUCERS * LOGS_PER_PRODUCER);
+            log.info("Per-stage latency:{}", metrics.summary());
+
+        } catch (IOException e) {
+            log.error("Pipeline demo failed", e);
+        } catch (InterruptedException e) {
+            log.error("Demo interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            deleteDirectoryQuietly(logDir);
+            log.info("=== Pipeline Demo Completed ===");
+        }
+    }
+
+    /**
+     * Journal the entries instead of formatting them, then replay the journal as after a restart
+     */
+    private void demonstrateJournal() {
+        log.info("=== BlockingQueue Demo: Memory-Mapped Journal ===");
+
+        Path journalDir = null;
+        try {
+            journalDir = Files.createTempDirectory("blockingqueue-journal-");
+            Path dir = journalDir;
+            LogPipeline pipeline = new LogPipeline("Journal", LogQueueType.MPSC_RING_BUFFER.create(BATCH_SIZE), BATCH_SIZE,
+                    consumerName -> new LogJournal(dir, LogJournal.MIN_SEGMENT_SIZE, FLUSH_INTERVAL, FsyncPolicy.ON_FLUSH));
+
+            pipeline.addConsumer();
+            for (int i = 1; i <= NUMBER_OF_PRODUCERS; i++) {
+                pipeline.submitProducer(new LogProducer("Producer-" + i, pipeline.getQueue(), LOGS_PER_PRODUCER));
+            }
+            pipeline.close(Duration.ofSeconds(30));
+
+            // Replay: a fresh reader sees every record that was appended
+            LogJournalReader reader = new LogJournalReader(journalDir);
+            int replayed = reader.poll(entry -> log.info("[{}] Replayed: {}", Thread.currentThread().getName(), entry),
+                    Integer.MAX_VALUE);
+            log.info("Journal wrote {} entries, replayed {}", pipeline.getWrittenLogsCount(), replayed);
+
+        } catch (IOException e) {
+            log.error("Journal demo failed", e);
+        } catch (InterruptedException e) {
+            log.error("Demo interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            deleteDirectoryQuietly(journalDir);
+            log.info("=== Journal Demo Completed ===");
+        }
+    }
+
+    /**
+     * Let the autoscaler size the consumer group instead of fixing it up front
+     */
+    private void demonstrateAutoscaling() {
+        log.info("=== BlockingQueue Demo: Adaptive Consumer Scaling ===");
+
+        Path logDir = null;
+        try {
+            logDir = Files.createTempDirectory("blockingqueue-autoscale-");
+            Path dir = logDir;
+            LogPipeline pipeline = new LogPipeline("Scaled", LogQueueType.ARRAY_BLOCKING.create(BATCH_SIZE), BATCH_SIZE,
+                    consumerName -> new LogFileSink(dir.resolve(consumerName + ".log"),
+                            LogFileSink.DEFAULT_BUFFER_SIZE, FLUSH_INTERVAL, FsyncPolicy.NEVER));
+
+            try (ConsumerAutoscaler autoscaler = new ConsumerAutoscaler(pipeline, 1, NUMBER_OF_PRODUCERS,
+                    Duration.ofMillis(5), Duration.ofMillis(100), Duration.ofMillis(300))) {
+                autoscaler.start();
+                for (int i = 1; i <= NUMBER_OF_PRODUCERS; i++) {
+                    pipeline.submitProducer(new LogProducer("Producer-" + i, pipeline.getQueue(), LOGS_PER_PRODUCER));
+                }
+                Thread.sleep(1000);
+
+                log.info("Autoscaler metrics - decision: {}, depth: {}, latency: {} us, utilization: {}%, "
+                                + "scale-ups: {}, scale-downs: {}",
+                        autoscaler.getLastDecision(), autoscaler.getLastQueueDepth(),
+                        TimeUnit.NANOSECONDS.toMicros(autoscaler.getLastLatencyNanos()),
+                        Math.round(autoscaler.getLastUtilization() * 100),
+                        autoscaler.getScaleUpCount(), autoscaler.getScaleDownCount());
+            }
+            pipeline.close(Duration.ofSeconds(30));
+            log.info("Autoscaled pipeline wrote {} logs", pipeline.getWrittenLogsCount());
+
+        } catch (IOException e) {
+            log.error("Autoscaling demo failed", e);
+        } catch (InterruptedException e) {
+            log.error("Demo interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            deleteDirectoryQuietly(logDir);
+            log.info("=== Adaptive Consumer Scaling Demo Completed ===");
+        }
+    }
+
+    /**
+     * One stripe per producer, two work-stealing consumers
+     */
+    private void demonstrateStripedQueues() {
+        log.info("=== BlockingQueue Demo: Striped Queues with Work Stealing ===");
+
+        int consumerCount = 2;
+        StripedQueue<LogEntry> striped = new StripedQueue<>(NUMBER_OF_PRODUCERS, BATCH_SIZE);
+        ExecutorService consumerExecutor = Executors.newFixedThreadPool(consumerCount);
+        ExecutorService producerExecutor = Executors.newFixedThreadPool(NUMBER_OF_PRODUCERS);
+        List<StripedQueueConsumerView<LogEntry>> views = new ArrayList<>();
+        List<LogSink> sinks = new ArrayList<>();
+        Path logDir = null;
+
+        try {
+            logDir = Files.createTempDirectory("blockingqueue-striped-");
+            for (int i = 0; i < consumerCount; i++) {
+                StripedQueueConsumerView<LogEntry> view = striped.consumerView(i, consumerCount);
+                LogSink sink = new LogFileSink(logDir.resolve("Stealer-" + i + ".log"),
+                        LogFileSink.DEFAULT_BUFFER_SIZE, FLUSH_INTERVAL, FsyncPolicy.NEVER);
+                views.add(view);
+                sinks.add(sink);
+                consumerExecutor.submit(new LogConsumer("Stealer-" + i, view, sink, BATCH_SIZE));
+            }
+
+            for (int i = 0; i < NUMBER_OF_PRODUCERS; i++) {
+                producerExecutor.submit(new LogProducer("Producer-" + (i + 1), striped.stripe(i), LOGS_PER_PRODUCER));
+            }
+
+            producerExecutor.shutdown();
+            producerExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            for (StripedQueueConsumerView<LogEntry> view : views) {
+                view.put(LogEntry.poison());
+            }
+            consumerExecutor.shutdown();
+            consumerExecutor.awaitTermination(30, TimeUnit.SECONDS);
+
+            log.info("Stripe depths: {}, stolen per stripe: {}, stolen per consumer: {}",
+                    Arrays.toString(striped.getStripeDepths()), Arrays.toString(striped.getStolenCounts()),
+                    views.stream().map(StripedQueueConsumerView::getStolenCount).toList());
+
+        } catch (IOException e) {
+            log.error("Striped queue demo failed", e);
+        } catch (InterruptedException e) {
+            log.error("Demo interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            producerExecutor.shutdownNow();
+            consumerExecutor.shutdownNow();
+            for (LogSink sink : sinks) {
+                try {
+                    sink.close();
+                } catch (IOException e) {
+                    log.warn("Could not close {}", sink.getPath(), e);
+                }
+            }
+            deleteDirectoryQuietly(logDir);
+            log.info("=== Striped Queues Demo Completed ===");
+        }
+    }
+
+    /**
+     * No consumer at all: every policy faces a queue that fills up and never drains
+     */
+    private void demonstrateBackpressure() {
+        log.info("=== BlockingQueue Demo: Backpressure Policies ===");
+
+        int logsPerProducer = QUEUE_CAPACITY + LOGS_PER_PRODUCER;
+        ExecutorService producerExecutor = Executors.newCachedThreadPool();
+        List<LogProducer> producers = new ArrayList<>();
+        List<BlockingQueue<LogEntry>> queues = new ArrayList<>();
+        LogJournal spillJournal = null;
+        Path spillDir = null;
+
+        try {
+            spillDir = Files.createTempDirectory("blockingqueue-spill-");
+            spillJournal = new LogJournal(spillDir, LogJournal.MIN_SEGMENT_SIZE, FLUSH_INTERVAL, FsyncPolicy.NEVER);
+
+            List<BackpressurePolicy> policies = List.of(
+                    new TimeoutBackpressure(Duration.ofMillis(50)),
+                    new DropOldestBackpressure(),
+                    new SamplingBackpressure(new DropOldestBackpressure(), 0.0, 0.5, 1.0),
+                    new SpillToDiskBackpressure(spillJournal));
+
+            for (BackpressurePolicy policy : policies) {
+                BlockingQueue<LogEntry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+                LogProducer producer = new LogProducer(policy.getClass().getSimpleName(), queue, logsPerProducer,
+                        new LogEntryPool(logsPerProducer), policy);
+                queues.add(queue);
+                producers.add(producer);
+                producerExecutor.submit(producer);
+            }
+
+            producerExecutor.shutdown();
+            producerExecutor.awaitTermination(30, TimeUnit.SECONDS);
+
+            for (int i = 0; i < producers.size(); i++) {
+                LogProducer producer = producers.get(i);
+                log.info("{}: enqueued={}, evicted-oldest={}, sampled-out={}, spilled={}, dropped={} (Queue size: {})",
+                        producer.getProducerName(),
+                        producer.getOutcomeCount(OfferOutcome.ENQUEUED),
+                        producer.getOutcomeCount(OfferOutcome.EVICTED_OLDEST),
+                        producer.getOutcomeCount(OfferOutcome.SAMPLED_OUT),
+                        producer.getOutcomeCount(OfferOutcome.SPILLED),
+                        producer.getOutcomeCount(OfferOutcome.DROPPED),
+                        queues.get(i).size());
+            }
+
+            spillJournal.flush();
+            int spilled = new LogJournalReader(spillDir).poll(entry -> { }, Integer.MAX_VALUE);
+            log.info("Spill journal holds {} entries to replay once the consumers catch up", spilled);
+
+        } catch (IOException e) {
+            log.error("Backpressure demo failed", e);
+        } catch (InterruptedException e) {
+            log.error("Demo interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            producerExecutor.shutdownNow();
+            if (spillJournal != null) {
+                spillJournal.close();
+            }
+            deleteDirectoryQuietly(spillDir);
+            log.info("=== Backpressure Demo Completed ===");
+        }
+    }
+
+    private void deleteDirectoryQuietly(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (var files = Files.list(directory)) {
+            files.forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not list {}", directory, e);
+        }
+        deleteQuietly(directory);
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
 }
@@ -0,0 +1,224 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConsumerAutoscaler keeps a LogPipeline within a queue-latency SLO by adding and parking consumers.
+ *
+ * Every sample period it reads:
+ * - queue depth (queue.size())
+ * - queue residence latency of the oldest entry in each consumer's latest batch
+ * - consumer utilization (busy time / wall time)
+ *
+ * and then:
+ * - SCALE_UP when latency exceeds the SLO or the queue is more than half full
+ * - SCALE_DOWN when latency is well under the SLO and consumers are mostly idle
+ * - HOLD otherwise, or while the cooldown after the last change has not elapsed
+ *
+ * Decisions and the last sample are exposed through getters for metrics.
+ */
+@Slf4j
+public class ConsumerAutoscaler implements AutoCloseable {
+
+    private static final double SCALE_DOWN_LATENCY_FRACTION = 0.25;
+    private static final double SCALE_DOWN_UTILIZATION = 0.3;
+
+    private final LogPipeline pipeline;
+    private final int minConsumers;
+    private final int maxConsumers;
+    private final long latencySloNanos;
+    private final Duration samplePeriod;
+    private final long cooldownNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Deque<String> addedConsumers = new ArrayDeque<>();
+    private final Map<String, long[]> previousSamples = new HashMap<>();
+
+    private final AtomicLong scaleUps = new AtomicLong();
+    private final AtomicLong scaleDowns = new AtomicLong();
+    private volatile ScalingDecision lastDecision = ScalingDecision.HOLD;
+    private volatile int lastQueueDepth;
+    private volatile long lastLatencyNanos;
+    private volatile double lastUtilization;
+    private long lastChangeNanos;
+    private long lastSampleNanos;
+    private ScheduledFuture<?> task;
+
+    public ConsumerAutoscaler(LogPipeline pipeline, int minConsumers, int maxConsumers,
+                              Duration latencySlo, Duration samplePeriod, Duration cooldown) {
+        if (minConsumers < 1 || maxConsumers < minConsumers) {
+            throw new IllegalArgumentException("Need 1 <= minConsumers <= maxConsumers");
+        }
+        this.pipeline = pipeline;
+        this.minConsumers = minConsumers;
+        this.maxConsumers = maxConsumers;
+        this.latencySloNanos = latencySlo.toNanos();
+        this.samplePeriod = samplePeriod;
+        this.cooldownNanos = cooldown.toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Start minConsumers consumers and begin sampling
+     */
+    public synchronized void start() {
+        while (pipeline.getActiveConsumers().size() < minConsumers) {
+            addedConsumers.push(pipeline.addConsumer());
+        }
+        lastSampleNanos = System.nanoTime();
+        lastChangeNanos = lastSampleNanos;
+        task = scheduler.scheduleAtFixedRate(this::sampleSafely,
+                samplePeriod.toNanos(), samplePeriod.toNanos(), TimeUnit.NANOSECONDS);
+        log.info("[{}] Autoscaler started: {}-{} consumers, SLO {} ms, sampling every {} ms",
+                Thread.currentThread().getName(), minConsumers, maxConsumers,
+                TimeUnit.NANOSECONDS.toMillis(latencySloNanos), samplePeriod.toMillis());
+    }
+
+    /**
+     * Take one sample and act on it. Called by the scheduler; public for deterministic use.
+     */
+    public synchronized ScalingDecision sample() {
+        if (pipeline.isSealed()) {
+            return ScalingDecision.HOLD;
+        }
+
+        long now = System.nanoTime();
+        long wallNanos = Math.max(1, now - lastSampleNanos);
+        lastSampleNanos = now;
+
+        List<LogConsumer> consumers = pipeline.getActiveConsumers();
+        long latency = 0;
+        long busy = 0;
+        for (LogConsumer consumer : consumers) {
+            long[] previous = previousSamples.getOrDefault(consumer.getConsumerName(), new long[2]);
+            long batches = consumer.getBatchesProcessed();
+            long busyNanos = consumer.getBusyNanos();
+            // A consumer that processed nothing since the last sample reports no latency
+            if (batches > previous[0]) {
+                latency = Math.max(latency, consumer.getLastQueueLatencyNanos());
+            }
+            busy += busyNanos - previous[1];
+            previousSamples.put(consumer.getConsumerName(), new long[]{batches, busyNanos});
+        }
+        previousSamples.keySet().removeIf(name -> consumers.stream().noneMatch(c -> c.getConsumerName().equals(name)));
+
+        int depth = pipeline.getQueue().size();
+        int capacity = depth + pipeline.getQueue().remainingCapacity();
+        double utilization = consumers.isEmpty() ? 0 : (double) busy / (wallNanos * consumers.size());
+
+        ScalingDecision decision = decide(consumers.size(), depth, capacity, latency, utilization, now);
+        apply(decision);
+
+        lastQueueDepth = depth;
+        lastLatencyNanos = latency;
+        lastUtilization = utilization;
+        lastDecision = decision;
+
+        if (decision != ScalingDecision.HOLD) {
+            log.info("[{}] Autoscaler {}: depth={}, latency={} us, utilization={}%, consumers now {}",
+                    Thread.currentThread().getName(), decision, depth, TimeUnit.NANOSECONDS.toMicros(latency),
+                    Math.round(utilization * 100), pipeline.getActiveConsumers().size());
+        }
+        return decision;
+    }
+
+    @Override
+    public void close() {
+        if (task != null) {
+            task.cancel(false);
+        }
+        scheduler.shutdownNow();
+        log.info("[{}] Autoscaler stopped. Scale-ups: {}, Scale-downs: {}",
+                Thread.currentThread().getName(), scaleUps.get(), scaleDowns.get());
+    }
+
+    public long getScaleUpCount() {
+        return scaleUps.get();
+    }
+
+    public long getScaleDownCount() {
+        return scaleDowns.get();
+    }
+
+    public ScalingDecision getLastDecision() {
+        return lastDecision;
+    }
+
+    public int getLastQueueDepth() {
+        return lastQueueDepth;
+    }
+
+    public long getLastLatencyNanos() {
+        return lastLatencyNanos;
+    }
+
+    public double getLastUtilization() {
+        return lastUtilization;
+    }
+
+    private ScalingDecision decide(int consumers, int depth, int capacity, long latency, double utilization, long now) {
+        if (now - lastChangeNanos < cooldownNanos) {
+            return ScalingDecision.HOLD;
+        }
+        boolean overloaded = latency > latencySloNanos || depth * 2 > capacity;
+        if (overloaded && consumers < maxConsumers) {
+            return ScalingDecision.SCALE_UP;
+        }
+        boolean idle = latency < latencySloNanos * SCALE_DOWN_LATENCY_FRACTION && utilization < SCALE_DOWN_UTILIZATION;
+        if (idle && consumers > minConsumers) {
+            return ScalingDecision.SCALE_DOWN;
+        }
+        return ScalingDecision.HOLD;
+    }
+
+    private void apply(ScalingDecision decision) {
+        try {
+            switch (decision) {
+                case SCALE_UP -> {
+                    addedConsumers.push(pipeline.addConsumer());
+                    scaleUps.incrementAndGet();
+                    lastChangeNanos = System.nanoTime();
+                }
+                case SCALE_DOWN -> {
+                    String newest = addedConsumers.poll();
+                    boolean removed = newest != null && pipeline.removeConsumer(newest);
+                    if (!removed) {
+                        removed = pipeline.getActiveConsumers().stream().findFirst()
+                                .map(consumer -> pipeline.removeConsumer(consumer.getConsumerName()))
+                                .orElse(false);
+                    }
+                    // Nothing removed (e.g. the pipeline kept its last consumer): no change to
+                    // count, and no cooldown - the next sample may decide again
+                    if (removed) {
+                        scaleDowns.incrementAndGet();
+                        lastChangeNanos = System.nanoTime();
+                    }
+                }
+                case HOLD -> {
+                }
+            }
+        } catch (IllegalStateException e) {
+            // Pipeline sealed or queue limited to one consumer - nothing to change
+            log.warn("[{}] Autoscaler could not {}: {}", Thread.currentThread().getName(), decision, e.getMessage());
+        }
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            log.error("[{}] Autoscaler sample failed", Thread.currentThread().getName(), e);
+        }
+    }
+}
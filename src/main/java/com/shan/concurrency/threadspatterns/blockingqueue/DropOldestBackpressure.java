@@ -0,0 +1,73 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * DropOldestBackpressure never waits: when the queue is full it evicts the oldest entry and
+ * retries, so the queue always holds the most recent logs - usually the ones that explain
+ * what is going wrong right now.
+ *
+ * The producer polls the queue itself, so the queue must allow several consumers. The
+ * single-consumer ring buffers are rejected.
+ */
+public class DropOldestBackpressure implements BackpressurePolicy {
+
+    @Override
+    public void checkQueue(BlockingQueue<LogEntry> queue) {
+        if (queue instanceof AbstractRingBufferQueue) {
+            throw new IllegalArgumentException(
+                    "Drop-oldest polls from the producer thread; " + queue.getClass().getSimpleName()
+                            + " supports a single consumer only");
+        }
+    }
+
+    @Override
+    public OfferOutcome offer(BlockingQueue<LogEntry> queue, LogEntry entry) {
+        boolean evicted = false;
+        while (!queue.offer(entry)) {
+            LogEntry head = queue.peek();
+            if (head != null && head.isPoison()) {
+                // Shutdown is in progress: the pill stays at the head, the new entry is dropped
+                entry.release();
+                return OfferOutcome.DROPPED;
+            }
+            LogEntry oldest = queue.poll();
+            if (oldest == null) {
+                // A consumer emptied the queue in between - just retry
+                continue;
+            }
+            if (oldest.isPoison()) {
+                // A consumer took the peeked entry and a pill moved up in between
+                requeuePoison(queue, oldest);
+                entry.release();
+                return OfferOutcome.DROPPED;
+            }
+            oldest.release();
+            evicted = true;
+        }
+        return evicted ? OfferOutcome.EVICTED_OLDEST : OfferOutcome.ENQUEUED;
+    }
+
+    /**
+     * Put the pill back without blocking: the slot it freed can only have been taken by another
+     * producer, so evict ordinary entries until every pill in hand fits again
+     */
+    private static void requeuePoison(BlockingQueue<LogEntry> queue, LogEntry poison) {
+        int pills = 1;
+        while (pills > 0) {
+            if (queue.offer(poison)) {
+                pills--;
+                continue;
+            }
+            LogEntry oldest = queue.poll();
+            if (oldest == null) {
+                continue;
+            }
+            if (oldest.isPoison()) {
+                pills++;
+            } else {
+                oldest.release();
+            }
+        }
+    }
+}
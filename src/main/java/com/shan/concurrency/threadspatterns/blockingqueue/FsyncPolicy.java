@@ -0,0 +1,13 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+/**
+ * FsyncPolicy decides when LogFileSink forces written bytes to the storage device.
+ */
+public enum FsyncPolicy {
+    /** Leave it to the OS page cache - fastest, may lose the last seconds on power loss */
+    NEVER,
+    /** fsync after every periodic flush - bounded loss window of one flush interval */
+    ON_FLUSH,
+    /** fsync after every drained batch - durable, throughput bound by the device */
+    EVERY_BATCH
+}
@@ -2,73 +2,259 @@ package com.shan.concurrency.threadspatterns.blockingqueue;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
  * LogConsumer takes log entries from the queue and writes them.
  * Represents a file writer or log aggregator.
+ *
+ * Two modes:
+ * - Simple mode: take() one entry at a time and simulate a slow write (demo of blocking behavior)
+ * - Batched mode: drainTo() up to batchSize entries per wake-up and append them to a LogSink
+ *
+ * A batched consumer stops on a poison pill, when requestStop() is called (after finishing the
+ * batch in hand), or when its input is sealed and the queue has been drained.
+ *
+ * Given a LogPipelineMetrics, it records QUEUE latency (enqueue to dequeue) for every entry and
+ * WRITE latency once per batch. Per-entry progress is logged at DEBUG only.
  */
 @Slf4j
 public class LogConsumer implements Runnable {
 
     private final String consumerName;
     private final BlockingQueue<LogEntry> queue;
-    private final List<LogEntry> writtenLogs = new ArrayList<>();
+    private final LogSink sink;
+    private final int batchSize;
+    private final List<LogEntry> batch;
+    private final BooleanSupplier inputSealed;
+    private final LogPipelineMetrics metrics;
+    private volatile boolean stopRequested;
+    private volatile long writtenLogs;
+
+    // Load statistics sampled by ConsumerAutoscaler (written by the consumer thread only)
+    private volatile long batchesProcessed;
+    private volatile long busyNanos;
+    private volatile long lastQueueLatencyNanos;
 
     public LogConsumer(String consumerName, BlockingQueue<LogEntry> queue) {
         this.consumerName = consumerName;
         this.queue = queue;
+        this.sink = null;
+        this.batchSize = 1;
+        this.batch = null;
+        this.inputSealed = () -> false;
+        this.metrics = null;
+    }
+
+    /**
+     * Batched consumer writing to a real file. The sink is owned by the caller.
+     */
+    public LogConsumer(String consumerName, BlockingQueue<LogEntry> queue, LogSink sink, int batchSize) {
+        this(consumerName, queue, sink, batchSize, () -> false);
+    }
+
+    /**
+     * Batched consumer that exits on its own once inputSealed reports true and the queue is empty,
+     * so no poison pill is needed.
+     */
+    public LogConsumer(String consumerName, BlockingQueue<LogEntry> queue, LogSink sink, int batchSize,
+                       BooleanSupplier inputSealed) {
+        this(consumerName, queue, sink, batchSize, inputSealed, null);
+    }
+
+    public LogConsumer(String consumerName, BlockingQueue<LogEntry> queue, LogSink sink, int batchSize,
+                       BooleanSupplier inputSealed, LogPipelineMetrics metrics) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1: " + batchSize);
+        }
+        this.consumerName = consumerName;
+        this.queue = queue;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<>(batchSize);
+        this.inputSealed = inputSealed;
+        this.metrics = metrics;
     }
 
     @Override
     public void run() {
         try {
-            log.info("[{}] Consumer '{}' started",
+            log.info("[{}] Consumer '{}' started (Mode: {})",
+                    Thread.currentThread().getName(), consumerName, sink == null ? "simple" : "batched");
+
+            if (sink == null) {
+                consumeOneByOne();
+            } else {
+                consumeInBatches();
+            }
+
+            log.info("[{}] Consumer '{}' finished. Total logs written: {}",
+                    Thread.currentThread().getName(), consumerName, writtenLogs);
+
+        } catch (InterruptedException e) {
+            log.error("[{}] Consumer '{}' was interrupted",
                     Thread.currentThread().getName(), consumerName);
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("[{}] Consumer '{}' failed to write to {}",
+                    Thread.currentThread().getName(), consumerName, sink.getPath(), e);
+        }
+    }
+
+    private void consumeOneByOne() throws InterruptedException {
+        while (true) {
+            // take() blocks if queue is empty
+            LogEntry entry = queue.take();
 
-            while (true) {
-                log.info("[{}] Consumer '{}' waiting for log entry (Queue size: {})",
-                        Thread.currentThread().getName(), consumerName, queue.size());
+            // Check for poison pill (shutdown signal)
+            if (entry.isPoison()) {
+                log.info("[{}] Consumer '{}' received poison pill. Shutting down.",
+                        Thread.currentThread().getName(), consumerName);
+                break;
+            }
 
-                // take() blocks if queue is empty
-                LogEntry entry = queue.take();
+            log.debug("[{}] Consumer '{}' took log entry: {}",
+                    Thread.currentThread().getName(), consumerName, entry);
 
-                // Check for poison pill (shutdown signal)
-                if (entry.isPoison()) {
-                    log.info("[{}] Consumer '{}' received poison pill. Shutting down.",
-                            Thread.currentThread().getName(), consumerName);
+            // Simulate writing to file
+            writeToFile(entry);
+        }
+    }
+
+    private void consumeInBatches() throws InterruptedException, IOException {
+        long pollMillis = Math.max(1, sink.getFlushInterval().toMillis());
+
+        while (true) {
+            // Wait for the first entry, but wake up in time to honour the flush interval
+            LogEntry first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                if (stopRequested || (inputSealed.getAsBoolean() && queue.isEmpty())) {
+                    log.info("[{}] Consumer '{}' {}. Shutting down.",
+                            Thread.currentThread().getName(), consumerName,
+                            stopRequested ? "stop requested" : "input drained");
+                    sink.flush();
                     break;
                 }
+                sink.flushIfDue();
+                continue;
+            }
 
-                log.info("[{}] Consumer '{}' took log entry: {} (Queue size: {})",
-                        Thread.currentThread().getName(), consumerName, entry, queue.size());
+            // Grab everything else that is already queued in one lock acquisition
+            long batchStart = System.nanoTime();
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
 
-                // Simulate writing to file
-                writeToFile(entry);
+            // The first entry is the oldest one in the batch: its age is the queue residence time
+            long dequeuedAt = LogEntry.currentEpochNanos();
+            if (!first.isPoison()) {
+                lastQueueLatencyNanos = queueLatency(first, dequeuedAt);
             }
 
-            log.info("[{}] Consumer '{}' finished. Total logs written: {}",
-                    Thread.currentThread().getName(), consumerName, writtenLogs.size());
+            int poisonPills = 0;
+            long writeStart = System.nanoTime();
+            for (LogEntry entry : batch) {
+                if (entry.isPoison()) {
+                    poisonPills++;
+                } else {
+                    if (metrics != null) {
+                        metrics.record(PipelineStage.QUEUE, queueLatency(entry, dequeuedAt));
+                    }
+                    sink.append(entry);
+                    entry.release();
+                }
+            }
+            int written = batch.size() - poisonPills;
+            writtenLogs += written;
+            batch.clear();
+            sink.endBatch();
+            long batchEnd = System.nanoTime();
+            if (metrics != null && written > 0) {
+                metrics.record(PipelineStage.WRITE, batchEnd - writeStart);
+            }
+            busyNanos += batchEnd - batchStart;
+            batchesProcessed++;
 
-        } catch (InterruptedException e) {
-            log.error("[{}] Consumer '{}' was interrupted",
-                    Thread.currentThread().getName(), consumerName);
-            Thread.currentThread().interrupt();
+            if (poisonPills > 0) {
+                // Pills drained on behalf of other consumers go back to the queue
+                for (int i = 1; i < poisonPills; i++) {
+                    queue.put(LogEntry.poison());
+                }
+                log.info("[{}] Consumer '{}' received poison pill. Shutting down.",
+                        Thread.currentThread().getName(), consumerName);
+                sink.flush();
+                break;
+            }
+
+            if (stopRequested) {
+                log.info("[{}] Consumer '{}' stop requested. Shutting down.",
+                        Thread.currentThread().getName(), consumerName);
+                sink.flush();
+                break;
+            }
         }
     }
 
+    /**
+     * Enqueue-to-dequeue time. An entry the producer has not stamped yet was taken before its
+     * offer() even returned, so it spent no measurable time in the queue.
+     */
+    private static long queueLatency(LogEntry entry, long dequeuedAt) {
+        long enqueuedAt = entry.getEnqueuedNanos();
+        return enqueuedAt == 0 ? 0 : Math.max(0, dequeuedAt - enqueuedAt);
+    }
+
     private void writeToFile(LogEntry entry) throws InterruptedException {
         Thread.sleep(150); // Simulate I/O operation
 
-        writtenLogs.add(entry);
+        writtenLogs++;
 
-        log.info("[{}] Consumer '{}' wrote to file: {}",
+        log.debug("[{}] Consumer '{}' wrote to file: {}",
                 Thread.currentThread().getName(), consumerName, entry);
+
+        // Last use of the entry - hand it back to the producer's pool
+        entry.release();
+    }
+
+    /**
+     * Ask a batched consumer to exit after the batch it is currently writing.
+     * Entries still in the queue are left for the remaining consumers.
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    public boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    public long getBatchesProcessed() {
+        return batchesProcessed;
+    }
+
+    /**
+     * Total time spent writing batches; compare two samples with wall time for utilization
+     */
+    public long getBusyNanos() {
+        return busyNanos;
+    }
+
+    /**
+     * Enqueue-to-dequeue latency of the oldest entry in the most recent batch
+     */
+    public long getLastQueueLatencyNanos() {
+        return lastQueueLatencyNanos;
+    }
+
+    public String getConsumerName() {
+        return consumerName;
     }
 
-    public int getWrittenLogsCount() {
-        return writtenLogs.size();
+    public long getWrittenLogsCount() {
+        return writtenLogs;
     }
 }
@@ -1,31 +1,282 @@
 package com.shan.concurrency.threadspatterns.blockingqueue;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 /**
  * LogEntry represents a log message to be written to file.
+ *
+ * The entry is a reusable flyweight in pre-serialized form:
+ * - level as a LogLevel (one-byte code)
+ * - source as an interned id from LogSourceRegistry
+ * - timestamp as epoch nanoseconds
+ * - message as UTF-8 bytes in a buffer owned by the entry (grows on demand, then is reused)
+ *
+ * Entries taken from a LogEntryPool go back to it with release() once the consumer has written
+ * them, so a steady-state producer allocates nothing. Messages longer than MAX_MESSAGE_BYTES
+ * are truncated.
  */
-@Data
-@AllArgsConstructor
 public class LogEntry {
-    private String level;
-    private String message;
-    private String source;
-    private LocalDateTime timestamp;
 
-    @Override
-    public String toString() {
-        return String.format("[%s] %s - %s: %s", timestamp, level, source, message);
+    public static final int MAX_MESSAGE_BYTES = 4096;
+    private static final int INITIAL_MESSAGE_BYTES = 128;
+
+    private static final LogEntry POISON = new LogEntry(null, true);
+
+    // Anchor wall-clock time once, then advance it with the allocation-free monotonic clock
+    private static final long EPOCH_NANOS_ANCHOR = epochNanos(Instant.now());
+    private static final long NANO_TIME_ANCHOR = System.nanoTime();
+
+    private final LogEntryPool pool;
+    private final boolean poison;
+    private byte[] message = new byte[INITIAL_MESSAGE_BYTES];
+    private int messageLength;
+    private LogLevel level;
+    private int sourceId;
+    private long timestampNanos;
+    // Stamped by the producer after a successful offer, so the consumer may still see 0
+    private volatile long enqueuedNanos;
+
+    LogEntry(LogEntryPool pool) {
+        this(pool, false);
+    }
+
+    private LogEntry(LogEntryPool pool, boolean poison) {
+        this.pool = pool;
+        this.poison = poison;
+    }
+
+    /**
+     * Convenience factory for a one-off, unpooled entry
+     */
+    public static LogEntry of(LogLevel level, String source, String message) {
+        return new LogEntry(null)
+                .set(level, LogSourceRegistry.register(source), currentEpochNanos())
+                .append(message);
     }
 
     public static LogEntry poison() {
-        return new LogEntry("POISON", "POISON_PILL", "SYSTEM", LocalDateTime.now());
+        return POISON;
     }
 
     public boolean isPoison() {
-        return "POISON".equals(level);
+        return poison;
+    }
+
+    /**
+     * Reset the entry for a new message. The message is empty until append() is called.
+     */
+    public LogEntry set(LogLevel level, int sourceId, long timestampNanos) {
+        this.level = level;
+        this.sourceId = sourceId;
+        this.timestampNanos = timestampNanos;
+        this.enqueuedNanos = 0;
+        this.messageLength = 0;
+        return this;
+    }
+
+    public LogEntry append(byte[] bytes) {
+        int length = Math.min(bytes.length, MAX_MESSAGE_BYTES - messageLength);
+        hasRoom(length);
+        System.arraycopy(bytes, 0, message, messageLength, length);
+        messageLength += length;
+        return this;
+    }
+
+    public LogEntry append(long value) {
+        if (value == Long.MIN_VALUE) {
+            // -value overflows; all 20 characters or none, like any other number
+            String text = Long.toString(value);
+            return hasRoom(text.length()) ? append(text) : this;
+        }
+        boolean negative = value < 0;
+        if (negative) {
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        // Sign included, so a number that does not fit leaves no dangling '-'
+        int length = negative ? digits + 1 : digits;
+        if (!hasRoom(length)) {
+            return this;
+        }
+        int end = messageLength + length;
+        for (int i = end - 1; i >= end - digits; i--) {
+            message[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        if (negative) {
+            message[messageLength] = '-';
+        }
+        messageLength = end;
+        return this;
+    }
+
+    /**
+     * Encode text as UTF-8 straight into the message buffer, without an intermediate byte[]
+     */
+    public LogEntry append(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (!appendByte(c)) {
+                    break;
+                }
+            } else if (c < 0x800) {
+                if (!hasRoom(2)) {
+                    break;
+                }
+                message[messageLength++] = (byte) (0xC0 | (c >> 6));
+                message[messageLength++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                if (!hasRoom(4)) {
+                    break;
+                }
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                message[messageLength++] = (byte) (0xF0 | (codePoint >> 18));
+                message[messageLength++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                message[messageLength++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                message[messageLength++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                if (!hasRoom(3)) {
+                    break;
+                }
+                char encoded = Character.isSurrogate(c) ? '?' : c;
+                message[messageLength++] = (byte) (0xE0 | (encoded >> 12));
+                message[messageLength++] = (byte) (0x80 | ((encoded >> 6) & 0x3F));
+                message[messageLength++] = (byte) (0x80 | (encoded & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Copy the raw message bytes into a buffer
+     */
+    public void writeMessageTo(ByteBuffer target) {
+        target.put(message, 0, messageLength);
+    }
+
+    /**
+     * Append length raw message bytes read from a buffer (used when replaying a journal)
+     */
+    LogEntry readMessageFrom(ByteBuffer source, int length) {
+        int copied = Math.min(length, MAX_MESSAGE_BYTES - messageLength);
+        hasRoom(copied);
+        source.get(message, messageLength, copied);
+        source.position(source.position() + length - copied);
+        messageLength += copied;
+        return this;
+    }
+
+    /**
+     * Return a pooled entry to its pool. Must be the last use of the entry.
+     */
+    public void release() {
+        if (pool != null) {
+            pool.release(this);
+        }
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public int getSourceId() {
+        return sourceId;
+    }
+
+    public String getSource() {
+        return poison ? "SYSTEM" : LogSourceRegistry.name(sourceId);
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * Record when the entry entered the queue (epoch nanos); called by the producer once the
+     * BackpressurePolicy has enqueued it
+     */
+    public void markEnqueued(long epochNanos) {
+        if (!poison) {
+            this.enqueuedNanos = epochNanos;
+        }
+    }
+
+    /**
+     * Enqueue time in epoch nanos, or 0 if the producer has not stamped it (yet)
+     */
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    public int getMessageLength() {
+        return messageLength;
+    }
+
+    /**
+     * Decoded timestamp - allocates, intended for display only
+     */
+    public LocalDateTime getTimestamp() {
+        return LocalDateTime.ofInstant(
+                Instant.ofEpochSecond(0, timestampNanos), ZoneId.systemDefault());
+    }
+
+    /**
+     * Decoded message - allocates, intended for display only
+     */
+    public String getMessage() {
+        return poison ? "POISON_PILL" : new String(message, 0, messageLength, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        if (poison) {
+            return "POISON_PILL";
+        }
+        return String.format("[%s] %s - %s: %s", getTimestamp(), level, getSource(), getMessage());
+    }
+
+    /**
+     * Wall-clock time in epoch nanoseconds without allocating an Instant
+     */
+    public static long currentEpochNanos() {
+        return EPOCH_NANOS_ANCHOR + (System.nanoTime() - NANO_TIME_ANCHOR);
+    }
+
+    private boolean appendByte(int b) {
+        if (!hasRoom(1)) {
+            return false;
+        }
+        message[messageLength++] = (byte) b;
+        return true;
+    }
+
+    /**
+     * Check the message limit and grow the buffer if needed. Growth stops once the entry has
+     * seen its largest message, so a warmed-up pooled entry does not allocate.
+     */
+    private boolean hasRoom(int bytes) {
+        int required = messageLength + bytes;
+        if (required > MAX_MESSAGE_BYTES) {
+            return false;
+        }
+        if (required > message.length) {
+            message = Arrays.copyOf(message, Math.min(MAX_MESSAGE_BYTES, Math.max(required, message.length * 2)));
+        }
+        return true;
+    }
+
+    private static long epochNanos(Instant instant) {
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
     }
 }
@@ -0,0 +1,53 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+/**
+ * LogEntryPool recycles LogEntry objects so the producer path does not allocate.
+ *
+ * One pool per producer: the owning producer is the only thread that calls acquire(),
+ * while any number of consumers call release(). That is exactly the MPSC shape, so the
+ * free list is an MpscRingBufferQueue.
+ *
+ * The pool never blocks: an empty pool allocates a new entry, and a full pool lets a
+ * released entry go to the garbage collector. After warm-up no allocation happens as long
+ * as the pool is at least as large as the number of entries in flight.
+ */
+public class LogEntryPool {
+
+    private final MpscRingBufferQueue<LogEntry> free;
+    private long allocated;
+
+    public LogEntryPool(int capacity) {
+        this.free = new MpscRingBufferQueue<>(capacity, WaitStrategy.BUSY_SPIN);
+        for (int i = 0; i < free.capacity(); i++) {
+            free.offer(new LogEntry(this));
+            allocated++;
+        }
+    }
+
+    /**
+     * Owner thread only
+     */
+    public LogEntry acquire() {
+        LogEntry entry = free.poll();
+        if (entry == null) {
+            allocated++;
+            entry = new LogEntry(this);
+        }
+        return entry;
+    }
+
+    void release(LogEntry entry) {
+        free.offer(entry);
+    }
+
+    /**
+     * Total entries this pool has ever allocated; stops growing once the pool is warm
+     */
+    public long getAllocatedCount() {
+        return allocated;
+    }
+
+    public int getAvailableCount() {
+        return free.size();
+    }
+}
@@ -0,0 +1,172 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * LogFileSink appends log entries to a local file through one reusable direct ByteBuffer.
+ *
+ * Entries are already pre-serialized, so appending one is a handful of byte copies into the
+ * buffer; the buffer is written to the FileChannel only when it fills up, when the flush
+ * interval has elapsed, or when the policy asks for it. This turns thousands of tiny writes
+ * into a few large ones. The date-time part of the timestamp is formatted once per second.
+ *
+ * Not thread-safe: give every LogConsumer its own sink.
+ */
+@Slf4j
+public class LogFileSink implements LogSink {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    // "[" + timestamp + "] " + level + " - " + source + ": " + message + "\n"
+    private static final int MAX_LINE_BYTES = LogEntry.MAX_MESSAGE_BYTES + LogSourceRegistry.MAX_NAME_BYTES + 64;
+    private static final int NANOS_PER_SECOND = 1_000_000_000;
+    private static final DateTimeFormatter SECOND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final byte[] LEVEL_SEPARATOR = " - ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SOURCE_SEPARATOR = ": ".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private long cachedEpochSecond = Long.MIN_VALUE;
+    private byte[] cachedSecondBytes;
+    private final Duration flushInterval;
+    private final long flushIntervalNanos;
+    private final FsyncPolicy fsyncPolicy;
+
+    private long lastFlushNanos = System.nanoTime();
+    // Bytes reached the channel since the last force(); an idle consumer's flushes then skip it
+    private boolean dirty;
+    private long entriesWritten;
+    private long bytesWritten;
+
+    public LogFileSink(Path path, int bufferSize, Duration flushInterval, FsyncPolicy fsyncPolicy) throws IOException {
+        if (bufferSize < MAX_LINE_BYTES) {
+            throw new IllegalArgumentException("bufferSize must hold at least one line (" + MAX_LINE_BYTES + " bytes)");
+        }
+        this.path = path;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.flushInterval = flushInterval;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * Copy one entry into the buffer, spilling to the channel only when the buffer is full
+     */
+    @Override
+    public void append(LogEntry entry) throws IOException {
+        if (buffer.remaining() < MAX_LINE_BYTES) {
+            writeBuffer();
+        }
+        buffer.put((byte) '[');
+        putTimestamp(entry.getTimestampNanos());
+        buffer.put((byte) ']').put((byte) ' ');
+        buffer.put(entry.getLevel().nameBytes());
+        buffer.put(LEVEL_SEPARATOR);
+        buffer.put(LogSourceRegistry.nameBytes(entry.getSourceId()));
+        buffer.put(SOURCE_SEPARATOR);
+        entry.writeMessageTo(buffer);
+        buffer.put((byte) '\n');
+        entriesWritten++;
+    }
+
+    @Override
+    public void endBatch() throws IOException {
+        if (fsyncPolicy == FsyncPolicy.EVERY_BATCH) {
+            flush();
+        } else {
+            flushIfDue();
+        }
+    }
+
+    @Override
+    public void flushIfDue() throws IOException {
+        if (System.nanoTime() - lastFlushNanos >= flushIntervalNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * Write buffered bytes to the channel and fsync when the policy requires it and something
+     * was written since the last fsync
+     */
+    @Override
+    public void flush() throws IOException {
+        writeBuffer();
+        if (dirty && fsyncPolicy != FsyncPolicy.NEVER) {
+            channel.force(false);
+        }
+        dirty = false;
+        lastFlushNanos = System.nanoTime();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+        log.info("LogFileSink '{}' closed. Entries: {}, Bytes: {}", path, entriesWritten, bytesWritten);
+    }
+
+    @Override
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public long getEntriesWritten() {
+        return entriesWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void putTimestamp(long epochNanos) {
+        long epochSecond = Math.floorDiv(epochNanos, NANOS_PER_SECOND);
+        int nanos = (int) Math.floorMod(epochNanos, NANOS_PER_SECOND);
+        if (epochSecond != cachedEpochSecond) {
+            LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+            cachedSecondBytes = SECOND_FORMAT.format(dateTime).getBytes(StandardCharsets.US_ASCII);
+            cachedEpochSecond = epochSecond;
+        }
+        buffer.put(cachedSecondBytes);
+        buffer.put((byte) '.');
+        for (int divisor = NANOS_PER_SECOND / 10; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + (nanos / divisor) % 10));
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+        dirty = true;
+    }
+}
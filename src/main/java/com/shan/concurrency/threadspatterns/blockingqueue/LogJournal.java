@@ -0,0 +1,226 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * LogJournal is an append-only, crash-survivable LogSink built on memory-mapped segment files.
+ *
+ * Each segment is a fixed-size file mapped once with FileChannel.map(). Appending a record is a
+ * few stores into the mapping - no system call - and the OS writes dirty pages back in the
+ * background, so records survive a JVM crash as soon as they are appended. force() (per
+ * FsyncPolicy) additionally makes them survive a power loss.
+ *
+ * Record layout (little-endian, every record starts on an 8-byte boundary):
+ * <pre>
+ * [int length][byte level][long timestampNanos][short sourceLength][source][message][padding]
+ * </pre>
+ * length covers everything after the length field and is written last with release semantics,
+ * so a concurrent LogJournalReader never sees a half-written record. 0 means "nothing written
+ * yet" and -1 means "segment full, continue in the next one".
+ *
+ * Reopening a directory continues after the last complete record; LogJournalReader replays it.
+ */
+@Slf4j
+public class LogJournal implements LogSink {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final int LENGTH_BYTES = 4;
+    static final int HEADER_BYTES = 1 + 8 + 2;
+    static final int END_OF_SEGMENT = -1;
+    static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final int MAX_RECORD_BYTES = align(LENGTH_BYTES + HEADER_BYTES
+            + LogSourceRegistry.MAX_NAME_BYTES + LogEntry.MAX_MESSAGE_BYTES);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration flushInterval;
+    private final long flushIntervalNanos;
+    private final FsyncPolicy fsyncPolicy;
+
+    private long segmentIndex;
+    private MappedByteBuffer segment;
+    private int position;
+    private long lastFlushNanos = System.nanoTime();
+    private long recordsWritten;
+    private boolean dirty;
+
+    public LogJournal(Path directory, int segmentSize, Duration flushInterval, FsyncPolicy fsyncPolicy) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize % 8 != 0) {
+            throw new IllegalArgumentException("segmentSize must be a multiple of 8 and at least "
+                    + MIN_SEGMENT_SIZE + ": " + segmentSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.flushInterval = flushInterval;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.fsyncPolicy = fsyncPolicy;
+        recover();
+    }
+
+    @Override
+    public void append(LogEntry entry) throws IOException {
+        byte[] source = LogSourceRegistry.nameBytes(entry.getSourceId());
+        int bodyLength = HEADER_BYTES + source.length + entry.getMessageLength();
+        int recordLength = align(LENGTH_BYTES + bodyLength);
+
+        // Always keep room for the end-of-segment marker
+        if (position + recordLength + LENGTH_BYTES > segmentSize) {
+            rollSegment();
+        }
+
+        segment.position(position + LENGTH_BYTES);
+        segment.put(entry.getLevel().code());
+        segment.putLong(entry.getTimestampNanos());
+        segment.putShort((short) source.length);
+        segment.put(source);
+        entry.writeMessageTo(segment);
+
+        // Publish: readers see the record only once its length is non-zero
+        LENGTH.setRelease(segment, position, bodyLength);
+        position += recordLength;
+        recordsWritten++;
+        dirty = true;
+    }
+
+    @Override
+    public void endBatch() throws IOException {
+        if (fsyncPolicy == FsyncPolicy.EVERY_BATCH) {
+            flush();
+        } else {
+            flushIfDue();
+        }
+    }
+
+    @Override
+    public void flushIfDue() throws IOException {
+        if (System.nanoTime() - lastFlushNanos >= flushIntervalNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * Mapped writes are already visible to readers and survive a JVM crash;
+     * force() is only needed to survive an OS crash or power loss.
+     */
+    @Override
+    public void flush() {
+        if (dirty && fsyncPolicy != FsyncPolicy.NEVER) {
+            segment.force();
+        }
+        dirty = false;
+        lastFlushNanos = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+        }
+        log.info("LogJournal '{}' closed at segment {} offset {}. Records appended: {}",
+                directory, segmentIndex, position, recordsWritten);
+    }
+
+    @Override
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    @Override
+    public Path getPath() {
+        return directory;
+    }
+
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    static int align(int length) {
+        return (length + 7) & ~7;
+    }
+
+    static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+    }
+
+    static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(indexes::add);
+        }
+        return indexes;
+    }
+
+    /**
+     * Continue after the last complete record of the newest segment
+     */
+    private void recover() throws IOException {
+        List<Long> segments = listSegments(directory);
+        segmentIndex = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        segment = map(segmentIndex);
+        position = 0;
+
+        while (position + LENGTH_BYTES <= segmentSize) {
+            int length = (int) LENGTH.getAcquire(segment, position);
+            if (length == 0) {
+                break;
+            }
+            if (length == END_OF_SEGMENT) {
+                segmentIndex++;
+                segment = map(segmentIndex);
+                position = 0;
+                continue;
+            }
+            position += align(LENGTH_BYTES + length);
+        }
+
+        if (position > 0 || segmentIndex > 0) {
+            log.info("LogJournal '{}' recovered at segment {} offset {}", directory, segmentIndex, position);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        // Marker first, so the force() that makes the segment durable covers it too
+        LENGTH.setRelease(segment, position, END_OF_SEGMENT);
+        segment.force();
+        dirty = false;
+        segmentIndex++;
+        segment = map(segmentIndex);
+        position = 0;
+    }
+
+    private MappedByteBuffer map(long index) throws IOException {
+        if (MAX_RECORD_BYTES + LENGTH_BYTES > segmentSize) {
+            throw new IllegalStateException("Segment too small for the largest record");
+        }
+        try (FileChannel channel = FileChannel.open(segmentPath(directory, index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return mapped;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * LogJournalReader replays or tails the segments written by a LogJournal.
+ *
+ * poll() hands out complete records only - it stops at the first record whose length has not
+ * been published yet - so it can run concurrently with the writer (same or another process)
+ * and simply be called again later to pick up new records.
+ *
+ * The LogEntry passed to the handler is reused for every record; copy what you need.
+ */
+public class LogJournalReader {
+
+    private static final int SOURCE_CACHE_SIZE = 64;
+
+    private final Path directory;
+    private final LogEntry entry = new LogEntry(null);
+    private final byte[][] cachedSourceNames = new byte[SOURCE_CACHE_SIZE][];
+    private final int[] cachedSourceIds = new int[SOURCE_CACHE_SIZE];
+    private final byte[] sourceScratch = new byte[LogSourceRegistry.MAX_NAME_BYTES];
+    private int cachedSources;
+    private long segmentIndex;
+    private MappedByteBuffer segment;
+    private int segmentSize;
+    private int position;
+    private long recordsRead;
+
+    public LogJournalReader(Path directory) throws IOException {
+        this.directory = directory;
+        List<Long> segments = LogJournal.listSegments(directory);
+        this.segmentIndex = segments.isEmpty() ? 0 : segments.get(0);
+    }
+
+    /**
+     * Read up to maxRecords complete records. Returns how many were handed to the handler;
+     * 0 means the reader has caught up with the writer.
+     */
+    public int poll(Consumer<LogEntry> handler, int maxRecords) throws IOException {
+        int read = 0;
+        while (read < maxRecords) {
+            if (segment == null && !openSegment()) {
+                break;
+            }
+            if (position + LogJournal.LENGTH_BYTES > segmentSize) {
+                break;
+            }
+            int length = (int) LogJournal.LENGTH.getAcquire(segment, position);
+            if (length == 0) {
+                break;
+            }
+            if (length == LogJournal.END_OF_SEGMENT) {
+                segment = null;
+                segmentIndex++;
+                position = 0;
+                continue;
+            }
+            decode(position + LogJournal.LENGTH_BYTES, length);
+            position += LogJournal.align(LogJournal.LENGTH_BYTES + length);
+            handler.accept(entry);
+            read++;
+            recordsRead++;
+        }
+        return read;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    private void decode(int offset, int length) {
+        segment.position(offset);
+        LogLevel level = LogLevel.fromCode(segment.get());
+        long timestampNanos = segment.getLong();
+        int sourceLength = segment.getShort();
+        int sourceId = sourceId(offset + LogJournal.HEADER_BYTES, sourceLength);
+        segment.position(offset + LogJournal.HEADER_BYTES + sourceLength);
+
+        entry.set(level, sourceId, timestampNanos)
+                .readMessageFrom(segment, length - LogJournal.HEADER_BYTES - sourceLength);
+    }
+
+    /**
+     * Map source name bytes back to a registry id, avoiding a String per record for recent sources
+     */
+    private int sourceId(int offset, int length) {
+        segment.get(offset, sourceScratch, 0, length);
+        for (int i = 0; i < cachedSources; i++) {
+            byte[] name = cachedSourceNames[i];
+            if (name.length == length && Arrays.equals(name, 0, length, sourceScratch, 0, length)) {
+                return cachedSourceIds[i];
+            }
+        }
+        byte[] name = Arrays.copyOf(sourceScratch, length);
+        int id = LogSourceRegistry.register(new String(name, StandardCharsets.UTF_8));
+        int slot = cachedSources < SOURCE_CACHE_SIZE ? cachedSources++ : (int) (recordsRead % SOURCE_CACHE_SIZE);
+        cachedSourceNames[slot] = name;
+        cachedSourceIds[slot] = id;
+        return id;
+    }
+
+    private boolean openSegment() throws IOException {
+        Path path = LogJournal.segmentPath(directory, segmentIndex);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < LogJournal.MIN_SEGMENT_SIZE) {
+                // The writer has created the file but not mapped it yet
+                return false;
+            }
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            segmentSize = (int) size;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * LogLevel is stored in a LogEntry as a one-byte code instead of a String.
+ * The printable form is encoded once, so writers copy bytes instead of re-encoding text.
+ */
+public enum LogLevel {
+    DEBUG((byte) 0),
+    INFO((byte) 1),
+    WARN((byte) 2),
+    ERROR((byte) 3);
+
+    private static final LogLevel[] BY_CODE = values();
+
+    private final byte code;
+    private final byte[] nameBytes;
+
+    LogLevel(byte code) {
+        this.code = code;
+        this.nameBytes = name().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    byte[] nameBytes() {
+        return nameBytes;
+    }
+
+    public static LogLevel fromCode(byte code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown log level code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
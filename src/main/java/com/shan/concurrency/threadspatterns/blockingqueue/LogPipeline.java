@@ -0,0 +1,228 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LogPipeline owns the producers and consumers around one log queue and shuts them down
+ * without poison pills.
+ *
+ * Shutdown order in close():
+ * 1. Stop accepting producers and wait for the running ones to finish (interrupting them once
+ *    the timeout has passed)
+ * 2. Seal the pipeline - only once no producer is left, since the queue itself still accepts
+ *    put(); a sealed consumer exits as soon as it finds the queue empty
+ * 3. Consumers keep draining in batches and exit once the queue is empty
+ *
+ * Because the pipeline never needs to know how many consumers exist, consumers can be added
+ * and removed at any time. A removed consumer finishes the batch it already drained, and the
+ * last running consumer cannot be removed while entries may still arrive, so no entry is lost
+ * or written twice.
+ *
+ * Producers must be started through submitProducer() so close() can wait for them.
+ */
+@Slf4j
+public class LogPipeline {
+
+    private static final long PRODUCER_STOP_TIMEOUT_MILLIS = 1000;
+
+    private final String name;
+    private final BlockingQueue<LogEntry> queue;
+    private final int batchSize;
+    private final LogSinkFactory sinkFactory;
+    private final int maxConsumers;
+    private final LogPipelineMetrics metrics;
+    private final ExecutorService producerExecutor;
+    private final ExecutorService consumerExecutor;
+    private final Map<String, LogConsumer> consumers = new ConcurrentHashMap<>();
+    private final AtomicInteger consumerSequence = new AtomicInteger();
+    private final AtomicLong retiredWrittenLogs = new AtomicLong();
+    private volatile boolean closed;
+    private volatile boolean sealed;
+
+    public LogPipeline(String name, BlockingQueue<LogEntry> queue, int batchSize, LogSinkFactory sinkFactory) {
+        this(name, queue, batchSize, sinkFactory, null);
+    }
+
+    /**
+     * Pipeline whose consumers record QUEUE and WRITE latency into metrics
+     */
+    public LogPipeline(String name, BlockingQueue<LogEntry> queue, int batchSize, LogSinkFactory sinkFactory,
+                       LogPipelineMetrics metrics) {
+        this.name = name;
+        this.metrics = metrics;
+        this.queue = queue;
+        this.batchSize = batchSize;
+        this.sinkFactory = sinkFactory;
+        // Ring buffers support exactly one consumer
+        this.maxConsumers = queue instanceof AbstractRingBufferQueue ? 1 : Integer.MAX_VALUE;
+        this.producerExecutor = Executors.newCachedThreadPool();
+        this.consumerExecutor = Executors.newCachedThreadPool();
+    }
+
+    public void submitProducer(LogProducer producer) {
+        if (closed) {
+            throw new IllegalStateException("Pipeline '" + name + "' is closed");
+        }
+        producerExecutor.submit(producer);
+    }
+
+    /**
+     * Start one more consumer and return its name
+     */
+    public synchronized String addConsumer() {
+        if (sealed) {
+            throw new IllegalStateException("Pipeline '" + name + "' is sealed");
+        }
+        if (consumers.size() >= maxConsumers) {
+            throw new IllegalStateException(queue.getClass().getSimpleName() + " supports at most "
+                    + maxConsumers + " consumer(s)");
+        }
+
+        String consumerName = name + "-Consumer-" + consumerSequence.incrementAndGet();
+        LogSink sink;
+        try {
+            sink = sinkFactory.open(consumerName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open sink for " + consumerName, e);
+        }
+
+        LogConsumer consumer = new LogConsumer(consumerName, queue, sink, batchSize, () -> sealed, metrics);
+        consumers.put(consumerName, consumer);
+        consumerExecutor.submit(() -> runConsumer(consumer, sink));
+
+        log.info("[{}] Pipeline '{}' added consumer '{}' (Consumers: {})",
+                Thread.currentThread().getName(), name, consumerName, consumers.size());
+        return consumerName;
+    }
+
+    /**
+     * Ask a consumer to exit after its current batch. Returns false if it is not running, or if
+     * it is the last running consumer and the pipeline is not sealed and drained yet.
+     */
+    public synchronized boolean removeConsumer(String consumerName) {
+        LogConsumer consumer = consumers.get(consumerName);
+        if (consumer == null) {
+            return false;
+        }
+        List<LogConsumer> active = getActiveConsumers();
+        if (active.size() == 1 && active.get(0) == consumer && !(sealed && queue.isEmpty())) {
+            log.warn("[{}] Pipeline '{}' refused to remove its last consumer '{}'",
+                    Thread.currentThread().getName(), name, consumerName);
+            return false;
+        }
+        consumer.requestStop();
+        log.info("[{}] Pipeline '{}' removing consumer '{}'",
+                Thread.currentThread().getName(), name, consumerName);
+        return true;
+    }
+
+    /**
+     * Wait for producers, seal the queue and let consumers drain it. Returns true if
+     * everything finished within the timeout.
+     */
+    public boolean close(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        closed = true;
+
+        producerExecutor.shutdown();
+        boolean producersDone = producerExecutor.awaitTermination(remaining(deadline), TimeUnit.NANOSECONDS);
+        if (!producersDone) {
+            // A put() after sealing could be stranded, so producers must be gone first
+            log.warn("[{}] Pipeline '{}' interrupting producers still running after {}",
+                    Thread.currentThread().getName(), name, timeout);
+            producerExecutor.shutdownNow();
+            producersDone = producerExecutor.awaitTermination(PRODUCER_STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        if (producersDone) {
+            synchronized (this) {
+                sealed = true;
+            }
+            log.info("[{}] Pipeline '{}' sealed with {} entries left to drain by {} consumer(s)",
+                    Thread.currentThread().getName(), name, queue.size(), consumers.size());
+        } else {
+            log.error("[{}] Pipeline '{}' producers did not stop - stopping consumers with {} entries undrained",
+                    Thread.currentThread().getName(), name, queue.size());
+            consumers.values().forEach(LogConsumer::requestStop);
+        }
+
+        consumerExecutor.shutdown();
+        boolean consumersDone = consumerExecutor.awaitTermination(remaining(deadline), TimeUnit.NANOSECONDS);
+
+        if (!producersDone || !consumersDone) {
+            log.warn("[{}] Pipeline '{}' did not finish within {}", Thread.currentThread().getName(), name, timeout);
+            producerExecutor.shutdownNow();
+            consumerExecutor.shutdownNow();
+        }
+        return producersDone && consumersDone;
+    }
+
+    public int getConsumerCount() {
+        return consumers.size();
+    }
+
+    /**
+     * Consumers that are running and have not been asked to stop
+     */
+    public List<LogConsumer> getActiveConsumers() {
+        return consumers.values().stream()
+                .filter(consumer -> !consumer.isStopRequested())
+                .toList();
+    }
+
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Entries written by all consumers, including those already removed
+     */
+    public long getWrittenLogsCount() {
+        long written = retiredWrittenLogs.get();
+        for (LogConsumer consumer : consumers.values()) {
+            written += consumer.getWrittenLogsCount();
+        }
+        return written;
+    }
+
+    public BlockingQueue<LogEntry> getQueue() {
+        return queue;
+    }
+
+    public LogPipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void runConsumer(LogConsumer consumer, LogSink sink) {
+        try {
+            consumer.run();
+        } finally {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                log.error("[{}] Could not close sink of '{}'",
+                        Thread.currentThread().getName(), consumer.getConsumerName(), e);
+            }
+            // Count first, so getWrittenLogsCount() never misses this consumer's entries
+            retiredWrittenLogs.addAndGet(consumer.getWrittenLogsCount());
+            consumers.remove(consumer.getConsumerName());
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
@@ -0,0 +1,51 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * LogPipelineMetrics holds one LatencyHistogram per PipelineStage and is shared as a Spring bean,
+ * so anything in the application can read p50/p99/p99.9 latencies of the log pipeline.
+ *
+ * Producers and consumers record into it when they are given an instance; passing null
+ * turns recording off.
+ */
+@Component
+public class LogPipelineMetrics {
+
+    private final Map<PipelineStage, LatencyHistogram> histograms = new EnumMap<>(PipelineStage.class);
+
+    public LogPipelineMetrics() {
+        for (PipelineStage stage : PipelineStage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public void record(PipelineStage stage, long nanos) {
+        histograms.get(stage).record(nanos);
+    }
+
+    public void record(PipelineStage stage, long nanos, int count) {
+        histograms.get(stage).record(nanos, count);
+    }
+
+    public LatencyHistogram getHistogram(PipelineStage stage) {
+        return histograms.get(stage);
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * One line per stage, for periodic logging
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        histograms.forEach((stage, histogram) -> summary.append(System.lineSeparator())
+                .append(String.format("  %-7s %s", stage, histogram)));
+        return summary.toString();
+    }
+}
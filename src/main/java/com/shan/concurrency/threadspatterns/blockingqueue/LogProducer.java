@@ -2,12 +2,22 @@ package com.shan.concurrency.threadspatterns.blockingqueue;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * LogProducer generates log entries and puts them in the queue.
  * Represents multiple application components producing logs.
+ *
+ * Entries come from a per-producer LogEntryPool and are filled in place, so building an
+ * entry allocates nothing once the pool is warm.
+ *
+ * What happens when the queue is full is up to the BackpressurePolicy (blocking put() by
+ * default). Every outcome is counted, so dropped, sampled and spilled entries stay visible.
+ *
+ * Per-entry progress is logged at DEBUG only: logging every put at INFO (with a locked
+ * queue.size() call) costs more than the hand-off itself. Use LogPipelineMetrics instead.
  */
 @Slf4j
 public class LogProducer implements Runnable {
@@ -15,11 +25,51 @@ public class LogProducer implements Runnable {
     private final String producerName;
     private final BlockingQueue<LogEntry> queue;
     private final int numberOfLogs;
+    private final int sourceId;
+    private final byte[] messageSuffix;
+    private final LogEntryPool pool;
+    private final BackpressurePolicy backpressure;
+    private final LogPipelineMetrics metrics;
+    private final AtomicLongArray outcomes = new AtomicLongArray(OfferOutcome.values().length);
+
+    private static final LogLevel[] LEVELS = {LogLevel.INFO, LogLevel.WARN, LogLevel.ERROR, LogLevel.DEBUG};
+    private static final byte[] MESSAGE_PREFIX = "Log message ".getBytes(StandardCharsets.US_ASCII);
+    private static final int DEFAULT_POOL_SIZE = 64;
 
     public LogProducer(String producerName, BlockingQueue<LogEntry> queue, int numberOfLogs) {
+        this(producerName, queue, numberOfLogs, new LogEntryPool(DEFAULT_POOL_SIZE));
+    }
+
+    /**
+     * Size the pool to at least the queue capacity to keep the steady state allocation-free
+     */
+    public LogProducer(String producerName, BlockingQueue<LogEntry> queue, int numberOfLogs, LogEntryPool pool) {
+        this(producerName, queue, numberOfLogs, pool, new BlockingBackpressure());
+    }
+
+    /**
+     * Producer that records its PRODUCE latency into metrics
+     */
+    public LogProducer(String producerName, BlockingQueue<LogEntry> queue, int numberOfLogs, LogPipelineMetrics metrics) {
+        this(producerName, queue, numberOfLogs, new LogEntryPool(DEFAULT_POOL_SIZE), new BlockingBackpressure(), metrics);
+    }
+
+    public LogProducer(String producerName, BlockingQueue<LogEntry> queue, int numberOfLogs, LogEntryPool pool,
+                       BackpressurePolicy backpressure) {
+        this(producerName, queue, numberOfLogs, pool, backpressure, null);
+    }
+
+    public LogProducer(String producerName, BlockingQueue<LogEntry> queue, int numberOfLogs, LogEntryPool pool,
+                       BackpressurePolicy backpressure, LogPipelineMetrics metrics) {
+        backpressure.checkQueue(queue);
+        this.backpressure = backpressure;
+        this.metrics = metrics;
         this.producerName = producerName;
         this.queue = queue;
         this.numberOfLogs = numberOfLogs;
+        this.pool = pool;
+        this.sourceId = LogSourceRegistry.register(producerName);
+        this.messageSuffix = (" from " + producerName).getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
@@ -30,16 +80,22 @@ public class LogProducer implements Runnable {
                     queue.remainingCapacity() + queue.size(), queue.size());
 
             for (int i = 1; i <= numberOfLogs; i++) {
+                long start = System.nanoTime();
                 LogEntry entry = createLogEntry(i);
 
-                log.info("[{}] Producer '{}' putting log {}/{} into queue (Queue size: {})",
-                        Thread.currentThread().getName(), producerName, i, numberOfLogs, queue.size());
-
-                // put() blocks if queue is full
-                queue.put(entry);
+                // Only BlockingBackpressure waits for room indefinitely
+                OfferOutcome outcome = backpressure.offer(queue, entry);
+                if (outcome == OfferOutcome.ENQUEUED || outcome == OfferOutcome.EVICTED_OLDEST) {
+                    // Only this producer reuses the entry, so stamping after hand-off is safe
+                    entry.markEnqueued(LogEntry.currentEpochNanos());
+                }
+                outcomes.incrementAndGet(outcome.ordinal());
+                if (metrics != null) {
+                    metrics.record(PipelineStage.PRODUCE, System.nanoTime() - start);
+                }
 
-                log.info("[{}] Producer '{}' successfully put log {}/{} (Queue size: {})",
-                        Thread.currentThread().getName(), producerName, i, numberOfLogs, queue.size());
+                log.debug("[{}] Producer '{}' log {}/{}: {}",
+                        Thread.currentThread().getName(), producerName, i, numberOfLogs, outcome);
 
                 Thread.sleep(100 + (int)(Math.random() * 200)); // Simulate variable production rate
             }
@@ -54,11 +110,19 @@ public class LogProducer implements Runnable {
         }
     }
 
-    private LogEntry createLogEntry(int sequence) {
-        String[] levels = {"INFO", "WARN", "ERROR", "DEBUG"};
-        String level = levels[sequence % levels.length];
-        String message = String.format("Log message %d from %s", sequence, producerName);
+    public long getOutcomeCount(OfferOutcome outcome) {
+        return outcomes.get(outcome.ordinal());
+    }
+
+    public String getProducerName() {
+        return producerName;
+    }
 
-        return new LogEntry(level, message, producerName, LocalDateTime.now());
+    LogEntry createLogEntry(int sequence) {
+        return pool.acquire()
+                .set(LEVELS[sequence % LEVELS.length], sourceId, LogEntry.currentEpochNanos())
+                .append(MESSAGE_PREFIX)
+                .append(sequence)
+                .append(messageSuffix);
     }
 }
@@ -0,0 +1,35 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * LogQueueType selects the queue implementation used between LogProducer and LogConsumer.
+ *
+ * - ARRAY_BLOCKING: one lock for put and take, fixed array
+ * - LINKED_BLOCKING: separate put/take locks, allocates a node per entry
+ * - SPSC_RING_BUFFER: lock-free, exactly one producer and one consumer
+ * - MPSC_RING_BUFFER: lock-free, many producers and one consumer
+ *
+ * Ring buffer capacities are rounded up to the next power of two.
+ */
+public enum LogQueueType {
+    ARRAY_BLOCKING,
+    LINKED_BLOCKING,
+    SPSC_RING_BUFFER,
+    MPSC_RING_BUFFER;
+
+    public BlockingQueue<LogEntry> create(int capacity) {
+        return create(capacity, WaitStrategy.PARK);
+    }
+
+    public BlockingQueue<LogEntry> create(int capacity, WaitStrategy waitStrategy) {
+        return switch (this) {
+            case ARRAY_BLOCKING -> new ArrayBlockingQueue<>(capacity);
+            case LINKED_BLOCKING -> new LinkedBlockingQueue<>(capacity);
+            case SPSC_RING_BUFFER -> new SpscRingBufferQueue<>(capacity, waitStrategy);
+            case MPSC_RING_BUFFER -> new MpscRingBufferQueue<>(capacity, waitStrategy);
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * LogSink is where a batched LogConsumer writes entries.
+ *
+ * Implementations:
+ * - LogFileSink: human-readable text file through a FileChannel
+ * - LogJournal: binary records in rolling memory-mapped segments, replayable with LogJournalReader
+ *
+ * Sinks are used by a single consumer thread and need not be thread-safe.
+ */
+public interface LogSink extends Closeable {
+
+    /**
+     * Write one entry. The consumer releases the entry right after this returns.
+     */
+    void append(LogEntry entry) throws IOException;
+
+    /**
+     * Called by the consumer after each drained batch
+     */
+    void endBatch() throws IOException;
+
+    /**
+     * Flush if the configured interval has elapsed since the last flush
+     */
+    void flushIfDue() throws IOException;
+
+    void flush() throws IOException;
+
+    Duration getFlushInterval();
+
+    Path getPath();
+}
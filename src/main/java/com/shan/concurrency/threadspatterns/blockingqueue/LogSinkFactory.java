@@ -0,0 +1,12 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.io.IOException;
+
+/**
+ * LogSinkFactory opens a dedicated LogSink for each consumer a LogPipeline starts.
+ */
+@FunctionalInterface
+public interface LogSinkFactory {
+
+    LogSink open(String consumerName) throws IOException;
+}
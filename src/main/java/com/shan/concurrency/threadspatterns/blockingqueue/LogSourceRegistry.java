@@ -0,0 +1,63 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * LogSourceRegistry interns log source names as small int ids.
+ *
+ * A LogEntry only carries the id; the name and its UTF-8 bytes are looked up here when the
+ * entry is written. Sources register once (e.g. when a LogProducer is created), so the
+ * lookup table is copy-on-write and reads need no locking.
+ */
+public final class LogSourceRegistry {
+
+    public static final int MAX_NAME_BYTES = 256;
+
+    private static final ConcurrentMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+    private static volatile byte[][] nameBytes = new byte[0][];
+
+    private LogSourceRegistry() {
+    }
+
+    /**
+     * Return the id of a source, registering it on first use
+     */
+    public static int register(String name) {
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (LogSourceRegistry.class) {
+            return IDS.computeIfAbsent(name, LogSourceRegistry::append);
+        }
+    }
+
+    public static String name(int id) {
+        return names[id];
+    }
+
+    static byte[] nameBytes(int id) {
+        return nameBytes[id];
+    }
+
+    // Called with the class lock held
+    private static int append(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Log source name longer than " + MAX_NAME_BYTES + " bytes: " + name);
+        }
+        int id = names.length;
+        String[] newNames = Arrays.copyOf(names, id + 1);
+        byte[][] newNameBytes = Arrays.copyOf(nameBytes, id + 1);
+        newNames[id] = name;
+        newNameBytes[id] = bytes;
+        // Publish bytes before names: readers only look up ids they obtained after register() returned
+        nameBytes = newNameBytes;
+        names = newNames;
+        return id;
+    }
+}
@@ -0,0 +1,70 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+
+/**
+ * Multi-producer / single-consumer ring buffer.
+ *
+ * Producers claim a slot by CAS-ing the tail sequence forward, then publish the element
+ * with a release-store into the slot. The consumer treats a null slot below the tail as
+ * "claimed but not yet published" and waits briefly for it. Contention is reduced to one
+ * CAS per put, instead of a lock acquisition plus condition signalling in ArrayBlockingQueue.
+ *
+ * Only one thread may consume at a time.
+ */
+public class MpscRingBufferQueue<E> extends AbstractRingBufferQueue<E> {
+
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    public MpscRingBufferQueue(int capacity) {
+        this(capacity, WaitStrategy.PARK);
+    }
+
+    public MpscRingBufferQueue(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        long currentTail;
+        do {
+            currentTail = tail.getAcquire();
+            if (currentTail - head.getAcquire() >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(currentTail, currentTail + 1));
+
+        SLOT.setRelease(buffer, (int) currentTail & mask, e);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long currentHead = head.getPlain();
+        int index = (int) currentHead & mask;
+        Object e = SLOT.getAcquire(buffer, index);
+        if (e == null) {
+            if (currentHead >= tail.getAcquire()) {
+                return null;
+            }
+            // A producer has claimed the slot but not published it yet - it is a few instructions away
+            do {
+                Thread.onSpinWait();
+                e = SLOT.getAcquire(buffer, index);
+            } while (e == null);
+        }
+        SLOT.set(buffer, index, null);
+        head.setRelease(currentHead + 1);
+        return (E) e;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        return (E) SLOT.getAcquire(buffer, (int) head.getPlain() & mask);
+    }
+}
@@ -0,0 +1,17 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+/**
+ * OfferOutcome is what a BackpressurePolicy did with one entry. LogProducer counts every outcome.
+ */
+public enum OfferOutcome {
+    /** The entry is in the queue */
+    ENQUEUED,
+    /** The entry is in the queue after older entries were evicted to make room for it */
+    EVICTED_OLDEST,
+    /** The entry was discarded by level sampling before it reached the queue */
+    SAMPLED_OUT,
+    /** The queue was full and the entry went to the spill sink instead */
+    SPILLED,
+    /** The queue stayed full and the entry was discarded */
+    DROPPED
+}
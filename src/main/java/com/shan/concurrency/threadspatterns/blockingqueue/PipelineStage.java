@@ -0,0 +1,14 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+/**
+ * PipelineStage names the three latencies LogPipelineMetrics records: PRODUCE and QUEUE once per
+ * entry, WRITE once per batch.
+ */
+public enum PipelineStage {
+    /** Producer thread: building the entry and handing it to the BackpressurePolicy */
+    PRODUCE,
+    /** Successful offer until a consumer dequeues it - backpressure waits belong to PRODUCE */
+    QUEUE,
+    /** Consumer thread: appending one whole batch to the sink */
+    WRITE
+}
@@ -0,0 +1,55 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * SamplingBackpressure reduces the volume before it reaches the queue: ERROR entries are
+ * always kept, every other level is kept with its own probability, and the survivors are
+ * handed to a delegate policy that deals with a full queue.
+ *
+ * Example: keep 1% of DEBUG, 25% of INFO, all WARN and ERROR, drop after 5 ms when full:
+ * <pre>
+ * new SamplingBackpressure(new TimeoutBackpressure(Duration.ofMillis(5)), 0.01, 0.25, 1.0)
+ * </pre>
+ */
+public class SamplingBackpressure implements BackpressurePolicy {
+
+    private final BackpressurePolicy delegate;
+    private final double[] keepRates = new double[LogLevel.values().length];
+
+    public SamplingBackpressure(BackpressurePolicy delegate, double debugKeepRate, double infoKeepRate,
+                                double warnKeepRate) {
+        this.delegate = delegate;
+        keepRates[LogLevel.DEBUG.ordinal()] = checkRate(debugKeepRate);
+        keepRates[LogLevel.INFO.ordinal()] = checkRate(infoKeepRate);
+        keepRates[LogLevel.WARN.ordinal()] = checkRate(warnKeepRate);
+        keepRates[LogLevel.ERROR.ordinal()] = 1.0;
+    }
+
+    @Override
+    public void checkQueue(BlockingQueue<LogEntry> queue) {
+        delegate.checkQueue(queue);
+    }
+
+    @Override
+    public OfferOutcome offer(BlockingQueue<LogEntry> queue, LogEntry entry) throws InterruptedException {
+        double keepRate = keepRates[entry.getLevel().ordinal()];
+        if (keepRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= keepRate) {
+            entry.release();
+            return OfferOutcome.SAMPLED_OUT;
+        }
+        return delegate.offer(queue, entry);
+    }
+
+    public double getKeepRate(LogLevel level) {
+        return keepRates[level.ordinal()];
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0.0 || rate > 1.0) {
+            throw new IllegalArgumentException("keep rate must be between 0 and 1: " + rate);
+        }
+        return rate;
+    }
+}
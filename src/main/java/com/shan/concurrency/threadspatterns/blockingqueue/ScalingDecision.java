@@ -0,0 +1,10 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+/**
+ * ScalingDecision is what ConsumerAutoscaler decided on one sample.
+ */
+public enum ScalingDecision {
+    SCALE_UP,
+    SCALE_DOWN,
+    HOLD
+}
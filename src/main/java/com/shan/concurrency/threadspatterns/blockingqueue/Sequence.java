@@ -0,0 +1,68 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Sequence is a long counter padded on both sides so that it owns a cache line.
+ *
+ * A ring buffer's head is written by consumers and its tail by producers; without padding
+ * both would share a cache line and every write on one side would invalidate the other
+ * (false sharing). The padding lives in superclasses because the JVM never reorders fields
+ * across a class hierarchy.
+ */
+public class Sequence extends SequenceRhsPadding {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * Read by the thread that owns the counter
+     */
+    public long getPlain() {
+        return (long) VALUE.get(this);
+    }
+
+    /**
+     * Read a value published by another thread
+     */
+    public long getAcquire() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Publish a value (and every write before it) to other threads, without a full fence
+     */
+    public void setRelease(long value) {
+        VALUE.setRelease(this, value);
+    }
+
+    public boolean compareAndSet(long expected, long value) {
+        return VALUE.compareAndSet(this, expected, value);
+    }
+}
+
+@SuppressWarnings("unused")
+class SequenceLhsPadding {
+    protected long p01, p02, p03, p04, p05, p06, p07;
+}
+
+class SequenceValue extends SequenceLhsPadding {
+    protected volatile long value;
+}
+
+@SuppressWarnings("unused")
+class SequenceRhsPadding extends SequenceValue {
+    protected long p09, p10, p11, p12, p13, p14, p15;
+}
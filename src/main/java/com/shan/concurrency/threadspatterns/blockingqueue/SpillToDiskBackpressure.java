@@ -0,0 +1,79 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * SpillToDiskBackpressure never waits and never loses an entry while the disk keeps up:
+ * entries that do not fit in the queue are appended to a local spill sink instead.
+ *
+ * A LogJournal makes a good spill sink - appending is a memory copy into a mapped file, and
+ * the spilled entries can be replayed later with LogJournalReader. The sink is shared by all
+ * producers using this policy, so appends are serialized; that only matters while spilling.
+ * The sink is owned by the caller.
+ *
+ * A whole overflow burst is one batch for the sink: endBatch() (an fsync under EVERY_BATCH) runs
+ * when the queue accepts entries again, and only flushIfDue() in between.
+ */
+@Slf4j
+public class SpillToDiskBackpressure implements BackpressurePolicy {
+
+    private final LogSink spill;
+    private boolean failed;
+    private volatile boolean burstPending;
+
+    public SpillToDiskBackpressure(LogSink spill) {
+        this.spill = spill;
+    }
+
+    @Override
+    public OfferOutcome offer(BlockingQueue<LogEntry> queue, LogEntry entry) {
+        if (queue.offer(entry)) {
+            if (burstPending) {
+                endBurst();
+            }
+            return OfferOutcome.ENQUEUED;
+        }
+        try {
+            return spill(entry) ? OfferOutcome.SPILLED : OfferOutcome.DROPPED;
+        } finally {
+            entry.release();
+        }
+    }
+
+    private synchronized boolean spill(LogEntry entry) {
+        if (failed) {
+            return false;
+        }
+        try {
+            spill.append(entry);
+            burstPending = true;
+            spill.flushIfDue();
+            return true;
+        } catch (IOException e) {
+            // Keep the producer running; everything that would have spilled is dropped from now on
+            log.error("Spilling to {} failed, dropping overflow from now on", spill.getPath(), e);
+            failed = true;
+            return false;
+        }
+    }
+
+    private synchronized void endBurst() {
+        if (!burstPending || failed) {
+            return;
+        }
+        burstPending = false;
+        try {
+            spill.endBatch();
+        } catch (IOException e) {
+            log.error("Spilling to {} failed, dropping overflow from now on", spill.getPath(), e);
+            failed = true;
+        }
+    }
+
+    public LogSink getSpillSink() {
+        return spill;
+    }
+}
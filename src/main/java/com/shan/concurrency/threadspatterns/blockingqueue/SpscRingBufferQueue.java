@@ -0,0 +1,73 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.util.Objects;
+
+/**
+ * Single-producer / single-consumer ring buffer.
+ *
+ * With exactly one thread on each side no CAS is needed: each side owns one sequence,
+ * writes its slot with plain stores and publishes by a release-store of its sequence.
+ * Each side also caches the other side's sequence and only re-reads it when the cached
+ * value says the buffer is full (producer) or empty (consumer), which keeps the two
+ * cache lines from bouncing between cores on every operation.
+ *
+ * Using it with more than one producer or more than one consumer corrupts the queue.
+ */
+public class SpscRingBufferQueue<E> extends AbstractRingBufferQueue<E> {
+
+    // Owned by the producer thread
+    private long cachedHead;
+
+    // Owned by the consumer thread
+    private long cachedTail;
+
+    public SpscRingBufferQueue(int capacity) {
+        this(capacity, WaitStrategy.PARK);
+    }
+
+    public SpscRingBufferQueue(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        long currentTail = tail.getPlain();
+        if (currentTail - cachedHead >= capacity) {
+            cachedHead = head.getAcquire();
+            if (currentTail - cachedHead >= capacity) {
+                return false;
+            }
+        }
+        buffer[(int) currentTail & mask] = e;
+        tail.setRelease(currentTail + 1);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long currentHead = head.getPlain();
+        if (currentHead >= cachedTail) {
+            cachedTail = tail.getAcquire();
+            if (currentHead >= cachedTail) {
+                return null;
+            }
+        }
+        int index = (int) currentHead & mask;
+        E e = (E) buffer[index];
+        buffer[index] = null;
+        head.setRelease(currentHead + 1);
+        return e;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        long currentHead = head.getPlain();
+        if (currentHead >= tail.getAcquire()) {
+            return null;
+        }
+        return (E) buffer[(int) currentHead & mask];
+    }
+}
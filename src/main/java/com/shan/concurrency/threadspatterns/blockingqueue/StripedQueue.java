@@ -0,0 +1,101 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * StripedQueue gives every producer its own bounded queue (stripe) instead of one shared queue.
+ *
+ * With a single ArrayBlockingQueue every put and take serializes on one lock and one cache line.
+ * Here each producer only contends with the consumers that visit its stripe, so adding
+ * producers and cores adds capacity instead of contention.
+ *
+ * Consumers read through a StripedQueueConsumerView:
+ * - each consumer owns the stripes with index % consumerCount == consumerIndex
+ * - it drains its own stripes round-robin with a per-stripe quota, so one noisy producer
+ *   cannot starve the others
+ * - when all its own stripes are empty it steals from the currently fullest stripe
+ */
+public class StripedQueue<E> {
+
+    private final BlockingQueue<E>[] stripes;
+    private final int stripeCapacity;
+    private final AtomicLongArray stolenPerStripe;
+
+    @SuppressWarnings("unchecked")
+    public StripedQueue(int stripeCount, int stripeCapacity) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("stripeCount must be positive: " + stripeCount);
+        }
+        this.stripes = new BlockingQueue[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ArrayBlockingQueue<>(stripeCapacity);
+        }
+        this.stripeCapacity = stripeCapacity;
+        this.stolenPerStripe = new AtomicLongArray(stripeCount);
+    }
+
+    /**
+     * The queue a producer writes to. Give each producer its own index.
+     */
+    public BlockingQueue<E> stripe(int index) {
+        return stripes[index];
+    }
+
+    /**
+     * The queue a consumer reads from, one of consumerCount consumers
+     */
+    public StripedQueueConsumerView<E> consumerView(int consumerIndex, int consumerCount) {
+        if (consumerIndex < 0 || consumerIndex >= consumerCount) {
+            throw new IllegalArgumentException("consumerIndex must be in [0, " + consumerCount + ")");
+        }
+        return new StripedQueueConsumerView<>(this, consumerIndex, consumerCount, WaitStrategy.PARK);
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    public int getStripeCapacity() {
+        return stripeCapacity;
+    }
+
+    /**
+     * Current depth of every stripe
+     */
+    public int[] getStripeDepths() {
+        int[] depths = new int[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            depths[i] = stripes[i].size();
+        }
+        return depths;
+    }
+
+    /**
+     * Entries taken from each stripe by consumers that do not own it
+     */
+    public long[] getStolenCounts() {
+        long[] stolen = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            stolen[i] = stolenPerStripe.get(i);
+        }
+        return stolen;
+    }
+
+    public int size() {
+        int size = 0;
+        for (BlockingQueue<E> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    BlockingQueue<E>[] stripes() {
+        return stripes;
+    }
+
+    void recordStolen(int stripe, int count) {
+        stolenPerStripe.addAndGet(stripe, count);
+    }
+}
@@ -0,0 +1,227 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StripedQueueConsumerView is one consumer's BlockingQueue view over a StripedQueue.
+ *
+ * poll() and drainTo() visit the consumer's own stripes round-robin, taking at most a fair
+ * share from each, and fall back to stealing from the fullest stripe when they are all empty.
+ * Blocking reads wait with a WaitStrategy because no single lock covers all stripes.
+ *
+ * Anything offered to the view (e.g. a re-queued poison pill) goes to the consumer's first
+ * own stripe. A view is used by one consumer thread. Iteration walks all stripes in turn with
+ * each stripe's own weakly consistent iterator.
+ */
+public class StripedQueueConsumerView<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private final StripedQueue<E> striped;
+    private final BlockingQueue<E>[] stripes;
+    private final int[] ownStripes;
+    private final WaitStrategy waitStrategy;
+    private final List<E> single = new ArrayList<>(1);
+    private int cursor;
+    private volatile long stolen;
+
+    StripedQueueConsumerView(StripedQueue<E> striped, int consumerIndex, int consumerCount, WaitStrategy waitStrategy) {
+        this.striped = striped;
+        this.stripes = striped.stripes();
+        this.waitStrategy = waitStrategy;
+
+        List<Integer> own = new ArrayList<>();
+        for (int i = consumerIndex; i < stripes.length; i += consumerCount) {
+            own.add(i);
+        }
+        this.ownStripes = own.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (maxElements <= 0) {
+            return 0;
+        }
+
+        // Fair share per own stripe, rotating the starting stripe between calls
+        int drained = 0;
+        if (ownStripes.length > 0) {
+            int quota = Math.max(1, maxElements / ownStripes.length);
+            boolean progress = true;
+            while (drained < maxElements && progress) {
+                progress = false;
+                for (int i = 0; i < ownStripes.length && drained < maxElements; i++) {
+                    BlockingQueue<E> stripe = stripes[ownStripes[(cursor + i) % ownStripes.length]];
+                    int taken = stripe.drainTo(c, Math.min(quota, maxElements - drained));
+                    drained += taken;
+                    progress |= taken > 0;
+                }
+            }
+            cursor = (cursor + 1) % ownStripes.length;
+        }
+        if (drained > 0) {
+            return drained;
+        }
+
+        // Own stripes are empty: steal from the fullest one
+        int fullest = -1;
+        int fullestDepth = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            int depth = stripes[i].size();
+            if (depth > fullestDepth) {
+                fullest = i;
+                fullestDepth = depth;
+            }
+        }
+        if (fullest < 0) {
+            return 0;
+        }
+        // Take at most half, leaving the owner something to work on
+        int taken = stripes[fullest].drainTo(c, Math.min(maxElements, Math.max(1, fullestDepth / 2)));
+        if (taken > 0) {
+            stolen += taken;
+            striped.recordStolen(fullest, taken);
+        }
+        return taken;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public E poll() {
+        single.clear();
+        return drainTo(single, 1) == 1 ? single.get(0) : null;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e = poll();
+        if (e != null) {
+            return e;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        while ((e = poll()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+            attempt = waitStrategy.idle(attempt);
+        }
+        return e;
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public E peek() {
+        for (BlockingQueue<E> stripe : stripes) {
+            E e = stripe.peek();
+            if (e != null) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return homeStripe().offer(e);
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        homeStripe().put(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        return homeStripe().offer(e, timeout, unit);
+    }
+
+    @Override
+    public int size() {
+        return striped.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (BlockingQueue<E> stripe : stripes) {
+            if (!stripe.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        int remaining = 0;
+        for (BlockingQueue<E> stripe : stripes) {
+            remaining += stripe.remainingCapacity();
+        }
+        return remaining;
+    }
+
+    /**
+     * Entries this consumer took from stripes it does not own
+     */
+    public long getStolenCount() {
+        return stolen;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int stripe;
+            private Iterator<E> current = stripes[0].iterator();
+            // The iterator that returned the last element, for remove()
+            private Iterator<E> last;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && stripe + 1 < stripes.length) {
+                    current = stripes[++stripe].iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = current;
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                last.remove();
+                last = null;
+            }
+        };
+    }
+
+    private BlockingQueue<E> homeStripe() {
+        return stripes[ownStripes.length > 0 ? ownStripes[0] : 0];
+    }
+}
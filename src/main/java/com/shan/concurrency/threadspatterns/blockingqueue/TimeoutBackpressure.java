@@ -0,0 +1,28 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimeoutBackpressure waits at most maxWait for room and drops the entry after that,
+ * which puts a hard upper bound on how long logging can delay the producing thread.
+ */
+public class TimeoutBackpressure implements BackpressurePolicy {
+
+    private final long maxWaitNanos;
+
+    public TimeoutBackpressure(Duration maxWait) {
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Override
+    public OfferOutcome offer(BlockingQueue<LogEntry> queue, LogEntry entry) throws InterruptedException {
+        // Try without a deadline first - the queue is rarely full
+        if (queue.offer(entry) || queue.offer(entry, maxWaitNanos, TimeUnit.NANOSECONDS)) {
+            return OfferOutcome.ENQUEUED;
+        }
+        entry.release();
+        return OfferOutcome.DROPPED;
+    }
+}
@@ -0,0 +1,58 @@
+package com.shan.concurrency.threadspatterns.blockingqueue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WaitStrategy decides what a ring-buffer producer or consumer does while the buffer is full or empty.
+ *
+ * Trade-off: the less a waiting thread gives up its CPU, the faster it reacts to the other side.
+ * - BUSY_SPIN: lowest latency, burns a whole core per waiting thread
+ * - YIELD: spins briefly, then lets other threads run
+ * - PARK: spins, yields, then sleeps for a few microseconds - friendliest for shared machines
+ */
+public enum WaitStrategy {
+
+    BUSY_SPIN {
+        @Override
+        public int idle(int attempt) {
+            Thread.onSpinWait();
+            return attempt + 1;
+        }
+    },
+
+    YIELD {
+        @Override
+        public int idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return attempt + 1;
+        }
+    },
+
+    PARK {
+        @Override
+        public int idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return attempt + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Wait once. Callers pass the number of previous attempts and get the next value back.
+     */
+    public abstract int idle(int attempt);
+}
@@ -5,14 +5,32 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * ApiService simulates external API calls for user data.
  * Each method returns CompletableFuture for async processing.
+ *
+ * Calls run on the executor given to the constructor - a dedicated pool keeps these blocking
+ * calls off ForkJoinPool.commonPool(), which CPU-bound work such as parallel streams shares.
  */
 @Slf4j
 public class ApiService {
 
+    private final Executor executor;
+
+    /**
+     * Runs calls on ForkJoinPool.commonPool(), like supplyAsync() without an executor
+     */
+    public ApiService() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ApiService(Executor executor) {
+        this.executor = executor;
+    }
+
     /**
      * Fetch user profile asynchronously
      */
@@ -27,7 +45,7 @@ public class ApiService {
 
             log.info("[{}] User profile fetched: {}", Thread.currentThread().getName(), profile);
             return profile;
-        });
+        }, executor);
     }
 
     /**
@@ -45,7 +63,7 @@ public class ApiService {
 
             log.info("[{}] Order history fetched: {} orders", Thread.currentThread().getName(), orders.size());
             return history;
-        });
+        }, executor);
     }
 
     /**
@@ -63,7 +81,7 @@ public class ApiService {
 
             log.info("[{}] Recommendations generated: {}", Thread.currentThread().getName(), products);
             return recommendations;
-        });
+        }, executor);
     }
 
     /**
@@ -81,7 +99,7 @@ public class ApiService {
             }
 
             return "Success-" + userId;
-        });
+        }, executor);
     }
 
     private void simulateApiDelay(int millis) {
@@ -1,5 +1,6 @@
 package com.shan.concurrency.threadspatterns.completablefuture;
 
+import com.shan.concurrency.threadspatterns.forkjoinpool.ForkJoinPoolRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -20,12 +21,19 @@ import java.util.concurrent.ExecutionException;
  * 5. exceptionally() - Handle errors with fallback
  * 6. handle() - Handle both success and error cases
  * 7. allOf() / anyOf() - Wait for multiple futures
+ * 8. ApiService runs on the dedicated "api" pool from ForkJoinPoolRegistry, not the common pool
  */
 @Slf4j
 @Component
 public class CompletableFutureDemo {
 
-    private final ApiService apiService = new ApiService();
+    private final ForkJoinPoolRegistry poolRegistry;
+    private final ApiService apiService;
+
+    public CompletableFutureDemo(ForkJoinPoolRegistry poolRegistry) {
+        this.poolRegistry = poolRegistry;
+        this.apiService = new ApiService(poolRegistry.get(ForkJoinPoolRegistry.API_POOL));
+    }
 
     public void demonstrate() {
         log.info("=== CompletableFuture Demo: Async API Call Chain ===");
@@ -33,6 +41,9 @@ public class CompletableFutureDemo {
         demonstrateBasicChaining();
         demonstrateCombining();
         demonstrateErrorHandling();
+
+        log.info("ForkJoinPools after the API calls: {}", poolRegistry.summary());
+        log.info("=== CompletableFuture Demo Completed ===");
     }
 
     /**
@@ -127,7 +138,5 @@ public class CompletableFutureDemo {
             log.error("Error in error handling demo", e);
             Thread.currentThread().interrupt();
         }
-
-        log.info("=== CompletableFuture Demo Completed ===");
     }
 }
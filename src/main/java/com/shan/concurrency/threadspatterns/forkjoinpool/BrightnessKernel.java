@@ -0,0 +1,63 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * BrightnessKernel is the leaf loop of the image processors: +20% brightness, clamped to 255.
+ *
+ * - SCALAR: one pixel per iteration through ImageProcessor.brighten()
+ * - VECTOR: a whole IntVector of pixels per iteration with the incubating Vector API (SIMD),
+ *   integer fixed-point scaling and a lane-wise min() as saturating clamp
+ *
+ * Both produce identical pixels. VECTOR needs the JVM to run with
+ * --add-modules jdk.incubator.vector (the Maven build passes it); preferred() falls back to
+ * SCALAR when the module is missing, so the Vector API classes are never loaded in that case.
+ */
+@Slf4j
+public enum BrightnessKernel implements RowKernel {
+
+    SCALAR {
+        @Override
+        public void apply(int[] source, int sourceOffset, int[] target, int targetOffset, int length) {
+            for (int i = 0; i < length; i++) {
+                target[targetOffset + i] = ImageProcessor.brighten(source[sourceOffset + i]);
+            }
+        }
+    },
+
+    VECTOR {
+        @Override
+        public void apply(int[] source, int sourceOffset, int[] target, int targetOffset, int length) {
+            VectorBrightness.apply(source, sourceOffset, target, targetOffset, length);
+        }
+    };
+
+    // floor(value * 1.2) == (value * 19661) >> 14 for every channel value 0..255
+    static final int FIXED_POINT_SCALE = 19661;
+    static final int FIXED_POINT_SHIFT = 14;
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final BrightnessKernel PREFERRED = detect();
+
+    @Override
+    public abstract void apply(int[] source, int sourceOffset, int[] target, int targetOffset, int length);
+
+    /**
+     * VECTOR when the Vector API is available, SCALAR otherwise
+     */
+    public static BrightnessKernel preferred() {
+        return PREFERRED;
+    }
+
+    public static boolean isVectorAvailable() {
+        return PREFERRED == VECTOR;
+    }
+
+    private static BrightnessKernel detect() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("{} not available - using the scalar brightness kernel", VECTOR_MODULE);
+            return SCALAR;
+        }
+        return VECTOR;
+    }
+}
@@ -0,0 +1,70 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * PixelImage backed by an IntBuffer view of a ByteBuffer - direct memory or a mapped file.
+ * Absolute bulk get/put never touch the buffer position, so any number of tasks can read and
+ * write different rows concurrently.
+ */
+final class BufferPixelImage extends PixelImage {
+
+    private final ByteBuffer bytes;
+    private final IntBuffer pixels;
+
+    BufferPixelImage(ByteBuffer bytes, int width, int height, int stride, int offset) {
+        this(bytes, bytes.asIntBuffer(), width, height, stride, offset);
+    }
+
+    private BufferPixelImage(ByteBuffer bytes, IntBuffer pixels, int width, int height, int stride, int offset) {
+        super(width, height, stride, offset);
+        if ((long) offset + (long) (height - 1) * stride + width > pixels.capacity()) {
+            throw new IllegalArgumentException("Buffer of " + pixels.capacity() + " pixels too small for "
+                    + width + "x" + height + " with stride " + stride);
+        }
+        this.bytes = bytes;
+        this.pixels = pixels;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        return pixels.get(index(x, y));
+    }
+
+    @Override
+    public void set(int x, int y, int pixel) {
+        pixels.put(index(x, y), pixel);
+    }
+
+    @Override
+    public void readRow(int x, int y, int[] target, int targetOffset, int length) {
+        pixels.get(index(x, y), target, targetOffset, length);
+    }
+
+    @Override
+    public void writeRow(int x, int y, int[] source, int sourceOffset, int length) {
+        pixels.put(index(x, y), source, sourceOffset, length);
+    }
+
+    @Override
+    public PixelImage subImage(int x, int y, int regionWidth, int regionHeight) {
+        checkRegion(x, y, regionWidth, regionHeight);
+        return new BufferPixelImage(bytes, pixels, regionWidth, regionHeight, stride, index(x, y));
+    }
+
+    @Override
+    public int[] array() {
+        return null;
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return bytes.isDirect();
+    }
+
+    @Override
+    public void force() {
+        ImageFiles.force(bytes);
+    }
+}
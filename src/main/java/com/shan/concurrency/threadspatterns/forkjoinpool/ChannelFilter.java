@@ -0,0 +1,42 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * ChannelFilter applies the same function to the red, green and blue channel.
+ *
+ * The function is evaluated once per channel value into a 256-entry lookup table, so any
+ * number of consecutive channel filters fuse into one table lookup per channel.
+ */
+final class ChannelFilter implements ImageFilter {
+
+    private final String name;
+    private final int[] table = new int[256];
+
+    ChannelFilter(String name, IntUnaryOperator function) {
+        this.name = name;
+        for (int value = 0; value < table.length; value++) {
+            table[value] = Math.max(0, Math.min(255, function.applyAsInt(value)));
+        }
+    }
+
+    /**
+     * Lookup table of this filter applied after the given one
+     */
+    int[] composeAfter(int[] first) {
+        int[] composed = new int[256];
+        for (int value = 0; value < composed.length; value++) {
+            composed[value] = table[first[value]];
+        }
+        return composed;
+    }
+
+    int[] table() {
+        return table.clone();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
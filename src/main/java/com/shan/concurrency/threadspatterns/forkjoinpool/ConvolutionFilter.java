@@ -0,0 +1,79 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+/**
+ * ConvolutionFilter computes every output pixel from a square neighbourhood of input pixels.
+ * Coordinates outside the image are clamped to the nearest edge pixel.
+ */
+final class ConvolutionFilter implements ImageFilter {
+
+    private final String name;
+    private final int[] weights;
+    private final int size;
+    private final int radius;
+    private final int divisor;
+
+    ConvolutionFilter(String name, int[] weights, int size) {
+        if (size % 2 == 0 || weights.length != size * size) {
+            throw new IllegalArgumentException("Kernel must be an odd square: " + weights.length + " weights, size " + size);
+        }
+        int sum = 0;
+        for (int weight : weights) {
+            sum += weight;
+        }
+        this.name = name;
+        this.weights = weights.clone();
+        this.size = size;
+        this.radius = size / 2;
+        this.divisor = sum == 0 ? 1 : sum;
+    }
+
+    int radius() {
+        return radius;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Convolve row y into output[outputOffset..]. The input holds rows firstRow..lastRow from
+     * offset 0; rows outside that range are clamped to it. rowOffsets is caller-owned scratch of
+     * at least size() ints, so a pass allocates nothing per row.
+     */
+    void convolveRow(int[] input, int firstRow, int lastRow, int width, int y, int[] rowOffsets,
+                     int[] output, int outputOffset) {
+        for (int dy = -radius; dy <= radius; dy++) {
+            rowOffsets[dy + radius] = (Math.max(firstRow, Math.min(lastRow, y + dy)) - firstRow) * width;
+        }
+        int center = rowOffsets[radius];
+
+        for (int x = 0; x < width; x++) {
+            boolean interior = x >= radius && x < width - radius;
+            int r = 0;
+            int g = 0;
+            int b = 0;
+            int w = 0;
+            for (int row = 0; row < size; row++) {
+                int rowOffset = rowOffsets[row];
+                for (int dx = -radius; dx <= radius; dx++) {
+                    int column = interior ? x + dx : Math.max(0, Math.min(width - 1, x + dx));
+                    int pixel = input[rowOffset + column];
+                    int weight = weights[w++];
+                    r += weight * ((pixel >> 16) & 0xFF);
+                    g += weight * ((pixel >> 8) & 0xFF);
+                    b += weight * (pixel & 0xFF);
+                }
+            }
+            output[outputOffset + x] = (input[center + x] & 0xFF000000) | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+        }
+    }
+
+    private int clamp(int sum) {
+        return Math.max(0, Math.min(255, (sum + divisor / 2) / divisor));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
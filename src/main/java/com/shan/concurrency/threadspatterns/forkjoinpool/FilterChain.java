@@ -0,0 +1,296 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * FilterChain runs a sequence of ImageFilters over an image with fork/join, in as few passes
+ * over memory as possible.
+ *
+ * How the chain is fused:
+ * - Consecutive brightness/contrast/gamma filters collapse into one 256-entry lookup table
+ * - All point filters between two neighbourhood filters run in the same loop, pixel by pixel
+ * - Each pass splits the image into bands of rows; a leaf applies the point filters, the
+ *   convolution and the point filters after it while its band is still in cache
+ * - A convolution needs radius extra rows above and below its band (the halo). The leaf
+ *   recomputes those rows from the pass input, so bands never wait for each other
+ *
+ * Example: brightness -> contrast -> grayscale -> blur -> gamma is one pass instead of five.
+ * A second neighbourhood filter starts a new pass through an intermediate buffer.
+ */
+public class FilterChain {
+
+    private static final int LEAF_PIXELS = 16 * 1024; // 64 KB of pixels per leaf band
+
+    // Per-worker scratch for a band plus its halo rows; grows to the largest band seen
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+    // Per-worker row offsets for ConvolutionFilter.convolveRow; grows to the largest kernel seen
+    private static final ThreadLocal<int[]> ROW_OFFSETS = ThreadLocal.withInitial(() -> new int[0]);
+
+    private final List<ImageFilter> filters;
+    private final List<Pass> passes;
+
+    public FilterChain(List<ImageFilter> filters) {
+        this.filters = List.copyOf(filters);
+        this.passes = compile(this.filters);
+    }
+
+    public static FilterChain of(ImageFilter... filters) {
+        return new FilterChain(Arrays.asList(filters));
+    }
+
+    /**
+     * Filter source into target (both width x height, row-major). Target may be source.
+     */
+    public void apply(ForkJoinPool pool, int[] source, int[] target, int width) {
+        if (width <= 0 || source.length % width != 0 || target.length != source.length) {
+            throw new IllegalArgumentException("Image of " + source.length + " pixels (target "
+                    + target.length + ") is not a multiple of width " + width);
+        }
+        int height = source.length / width;
+        int[] input = source;
+        int[][] buffers = new int[2][];
+
+        for (int p = 0; p < passes.size(); p++) {
+            Pass pass = passes.get(p);
+            int[] output;
+            if (p == passes.size() - 1) {
+                output = target;
+            } else {
+                int next = input == buffers[0] ? 1 : 0;
+                if (buffers[next] == null) {
+                    buffers[next] = new int[source.length];
+                }
+                output = buffers[next];
+            }
+            if (pass.convolution != null && input == output) {
+                // Halo rows would be read after a neighbouring band overwrote them
+                input = input.clone();
+            }
+            pool.invoke(new PassTask(pass, input, output, width, height, 0, height));
+            input = output;
+        }
+    }
+
+    /**
+     * The whole chain as one fused RowKernel, e.g. for TiledImageProcessor. Only chains made
+     * of point filters qualify - neighbourhood filters need whole rows above and below.
+     */
+    public RowKernel asRowKernel() {
+        Pass pass = passes.get(0);
+        if (passes.size() != 1 || pass.convolution != null) {
+            throw new IllegalStateException("Chain with neighbourhood filters is not a row kernel: " + this);
+        }
+        PointOps ops = pass.before;
+        return (source, sourceOffset, target, targetOffset, length) -> {
+            for (int i = 0; i < length; i++) {
+                target[targetOffset + i] = ops.apply(source[sourceOffset + i]);
+            }
+        };
+    }
+
+    public int getPassCount() {
+        return passes.size();
+    }
+
+    public List<ImageFilter> getFilters() {
+        return filters;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        for (Pass pass : passes) {
+            if (!description.isEmpty()) {
+                description.append(" | ");
+            }
+            description.append(pass);
+        }
+        return description.toString();
+    }
+
+    private static List<Pass> compile(List<ImageFilter> filters) {
+        List<Pass> passes = new ArrayList<>();
+        PointOps before = new PointOps();
+        ConvolutionFilter convolution = null;
+        PointOps after = new PointOps();
+
+        for (ImageFilter filter : filters) {
+            if (filter instanceof ConvolutionFilter next) {
+                if (convolution != null) {
+                    passes.add(new Pass(before, convolution, after));
+                    before = new PointOps();
+                    after = new PointOps();
+                }
+                convolution = next;
+            } else {
+                (convolution == null ? before : after).add(filter);
+            }
+        }
+        passes.add(new Pass(before, convolution, after));
+        return passes;
+    }
+
+    /**
+     * Fused point filters: a list of lookup tables, with null standing for grayscale
+     */
+    private static final class PointOps {
+        private final List<int[]> steps = new ArrayList<>();
+        private final List<ImageFilter> filters = new ArrayList<>();
+        private int[][] compiled = new int[0][];
+
+        void add(ImageFilter filter) {
+            filters.add(filter);
+            int last = steps.size() - 1;
+            if (filter instanceof ChannelFilter channel) {
+                if (last >= 0 && steps.get(last) != null) {
+                    steps.set(last, channel.composeAfter(steps.get(last)));
+                } else {
+                    steps.add(channel.table());
+                }
+            } else if (filter instanceof GrayscaleFilter) {
+                if (last < 0 || steps.get(last) != null) {
+                    steps.add(null);
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported filter: " + filter);
+            }
+            compiled = steps.toArray(new int[0][]);
+        }
+
+        boolean isEmpty() {
+            return compiled.length == 0;
+        }
+
+        int apply(int pixel) {
+            if (compiled.length == 0) {
+                return pixel;
+            }
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            for (int[] table : compiled) {
+                if (table == null) {
+                    r = g = b = GrayscaleFilter.luma(r, g, b);
+                } else {
+                    r = table[r];
+                    g = table[g];
+                    b = table[b];
+                }
+            }
+            return (pixel & 0xFF000000) | (r << 16) | (g << 8) | b;
+        }
+
+        @Override
+        public String toString() {
+            return filters.toString();
+        }
+    }
+
+    private record Pass(PointOps before, ConvolutionFilter convolution, PointOps after) {
+
+        @Override
+        public String toString() {
+            StringBuilder description = new StringBuilder();
+            if (!before.isEmpty()) {
+                description.append(before);
+            }
+            if (convolution != null) {
+                description.append(description.isEmpty() ? "" : " -> ").append(convolution);
+            }
+            if (!after.isEmpty()) {
+                description.append(" -> ").append(after);
+            }
+            return description.toString();
+        }
+    }
+
+    /**
+     * One pass over rows [rowStart, rowEnd), split into bands of about LEAF_PIXELS pixels
+     */
+    private static final class PassTask extends RecursiveAction {
+
+        private final Pass pass;
+        private final int[] input;
+        private final int[] output;
+        private final int width;
+        private final int height;
+        private final int rowStart;
+        private final int rowEnd;
+
+        PassTask(Pass pass, int[] input, int[] output, int width, int height, int rowStart, int rowEnd) {
+            this.pass = pass;
+            this.input = input;
+            this.output = output;
+            this.width = width;
+            this.height = height;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = rowEnd - rowStart;
+            if (rows <= Math.max(1, LEAF_PIXELS / width)) {
+                if (pass.convolution == null) {
+                    applyPointOps();
+                } else {
+                    applyConvolution();
+                }
+                return;
+            }
+
+            int mid = rowStart + rows / 2;
+            PassTask top = new PassTask(pass, input, output, width, height, rowStart, mid);
+            top.fork();
+            new PassTask(pass, input, output, width, height, mid, rowEnd).compute();
+            top.join();
+        }
+
+        private void applyPointOps() {
+            PointOps ops = pass.before;
+            for (int i = rowStart * width, end = rowEnd * width; i < end; i++) {
+                output[i] = ops.apply(input[i]);
+            }
+        }
+
+        private void applyConvolution() {
+            ConvolutionFilter convolution = pass.convolution;
+            int firstRow = Math.max(0, rowStart - convolution.radius());
+            int lastRow = Math.min(height - 1, rowEnd - 1 + convolution.radius());
+            int haloPixels = (lastRow - firstRow + 1) * width;
+
+            // Point filters before the convolution, for the band and its halo
+            int[] scratch = SCRATCH.get();
+            if (scratch.length < haloPixels) {
+                scratch = new int[haloPixels];
+                SCRATCH.set(scratch);
+            }
+            PointOps before = pass.before;
+            for (int i = 0, offset = firstRow * width; i < haloPixels; i++) {
+                scratch[i] = before.apply(input[offset + i]);
+            }
+
+            int[] rowOffsets = ROW_OFFSETS.get();
+            if (rowOffsets.length < convolution.size()) {
+                rowOffsets = new int[convolution.size()];
+                ROW_OFFSETS.set(rowOffsets);
+            }
+
+            // Convolution and the point filters after it, straight into the output
+            PointOps after = pass.after;
+            for (int y = rowStart; y < rowEnd; y++) {
+                int rowOffset = y * width;
+                convolution.convolveRow(scratch, firstRow, lastRow, width, y, rowOffsets, output, rowOffset);
+                if (!after.isEmpty()) {
+                    for (int i = rowOffset, end = rowOffset + width; i < end; i++) {
+                        output[i] = after.apply(output[i]);
+                    }
+                }
+            }
+        }
+    }
+}
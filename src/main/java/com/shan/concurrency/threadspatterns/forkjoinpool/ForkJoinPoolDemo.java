@@ -1,8 +1,15 @@
 package com.shan.concurrency.threadspatterns.forkjoinpool;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ForkJoinPool;
 
 /**
@@ -19,12 +26,30 @@ import java.util.concurrent.ForkJoinPool;
  * 5. join() - wait for subtask result
  * 6. Optimized for recursive divide-and-conquer algorithms
  * 7. Uses work-stealing for load balancing
+ * 8. RecursiveAction variant writes into a target array - no per-leaf arrays, no merging
+ * 9. Leaves run a SIMD BrightnessKernel when the Vector API is available, scalar otherwise
+ * 10. FilterChain fuses several filters (including a blur with halo rows) into one pass
+ * 11. SplitPolicy.adaptive() splits by surplus queued tasks instead of a fixed size
+ * 12. ForkJoinTrace counts splits, leaves and steals per worker instead of logging in compute()
+ * 13. PixelImage + TiledImageProcessor split a 2D (optionally off-heap) image into cache-sized tiles
+ * 14. ImageFiles maps PPM/raw files, so tiles stream from one mapped file into another
+ * 15. ForkJoinPoolRegistry gives image work its own "image" pool instead of the shared common pool
+ * 16. ImageJobService runs a batch in one invoke(): small images whole, large ones split
+ * 17. ParallelArrays reduce/scan/histogram; ImageStatistics measures luma while filtering
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class ForkJoinPoolDemo {
 
     private static final int IMAGE_SIZE = 5000; // 5000 pixels
+    private static final int IMAGE_WIDTH = 100; // 100 x 50 when treated as a 2D image
+    private static final int THRESHOLD = 1000; // Small fixed threshold so the demo image is split
+
+    private static final int BATCH_SMALL_IMAGES = 2000; // 32 x 32 thumbnails
+    private static final int BATCH_LARGE_IMAGES = 4; // 256 x 256
+
+    private final ForkJoinPoolRegistry poolRegistry;
 
     public void demonstrate() {
         log.info("=== ForkJoinPool Demo: Parallel Image Processing ===");
@@ -34,18 +59,22 @@ public class ForkJoinPoolDemo {
         int[] imagePixels = generateImageData(IMAGE_SIZE);
         log.info("Generated image with {} pixels", imagePixels.length);
 
-        // Step 2: Get ForkJoinPool (using common pool)
-        ForkJoinPool pool = ForkJoinPool.commonPool();
-        log.info("Using ForkJoinPool with parallelism level: {}", pool.getParallelism());
+        // Step 2: Get the dedicated image ForkJoinPool, isolated from commonPool() users
+        ForkJoinPool pool = poolRegistry.get(ForkJoinPoolRegistry.IMAGE_POOL);
+        log.info("Using ForkJoinPool '{}' with parallelism level: {}",
+                ForkJoinPoolRegistry.IMAGE_POOL, pool.getParallelism());
 
-        // Step 3: Create main task
-        ImageProcessor task = new ImageProcessor(imagePixels, 0, imagePixels.length);
+        // Step 3: Create main task, traced instead of logging from every fork/join node
+        ForkJoinTrace trace = new ForkJoinTrace();
+        ImageProcessor task = new ImageProcessor(imagePixels, 0, imagePixels.length, SplitPolicy.fixed(THRESHOLD), trace);
 
         // Step 4: Execute and get result
         log.info("[{}] Starting image processing...", Thread.currentThread().getName());
         long startTime = System.currentTimeMillis();
 
+        trace.begin(pool);
         int[] processedPixels = pool.invoke(task);
+        ForkJoinTraceSummary summary = trace.end(pool);
 
         long endTime = System.currentTimeMillis();
 
@@ -54,10 +83,139 @@ public class ForkJoinPoolDemo {
         log.info("Processed {} pixels in {} ms", processedPixels.length, (endTime - startTime));
         log.info("Pool stats - Active threads: {}, Steal count: {}, Queued tasks: {}",
                 pool.getActiveThreadCount(), pool.getStealCount(), pool.getQueuedTaskCount());
+        log.info("Task tree - Splits: {}, Leaves: {} (per worker: {}), Max depth: {}, Steals: {}, Avg leaf: {} us",
+                summary.getSplits(), summary.getLeaves(), summary.getLeavesPerWorker(), summary.getMaxDepth(),
+                summary.getStealCount(), summary.getAverageLeafNanos() / 1_000);
+
+        // Step 6: Same filter without intermediate arrays, straight into a preallocated target
+        int[] target = new int[imagePixels.length];
+        startTime = System.currentTimeMillis();
+        pool.invoke(new InPlaceImageProcessor(imagePixels, target, 0, imagePixels.length));
+        endTime = System.currentTimeMillis();
+        log.info("In-place RecursiveAction processed {} pixels in {} ms (same result: {})",
+                target.length, (endTime - startTime), Arrays.equals(target, processedPixels));
+
+        // Step 7: Force the scalar kernel to check it agrees with the preferred one
+        int[] scalarTarget = new int[imagePixels.length];
+        pool.invoke(new InPlaceImageProcessor(imagePixels, scalarTarget, 0, imagePixels.length, BrightnessKernel.SCALAR));
+        log.info("Brightness kernel: {} (matches scalar: {})",
+                BrightnessKernel.preferred(), Arrays.equals(target, scalarTarget));
+
+        // Step 8: A whole filter chain, fused into as few passes as possible
+        FilterChain chain = FilterChain.of(
+                ImageFilter.brightness(1.2), ImageFilter.contrast(1.1), ImageFilter.grayscale(),
+                ImageFilter.blur(1), ImageFilter.gamma(1.1));
+        int[] thumbnail = new int[imagePixels.length];
+        startTime = System.currentTimeMillis();
+        chain.apply(pool, imagePixels, thumbnail, IMAGE_WIDTH);
+        endTime = System.currentTimeMillis();
+        log.info("Filter chain of {} filters ran in {} pass(es): {} ({} ms)",
+                chain.getFilters().size(), chain.getPassCount(), chain, (endTime - startTime));
+
+        // Step 9: The same image as a 2D off-heap PixelImage, processed tile by tile
+        int height = imagePixels.length / IMAGE_WIDTH;
+        PixelImage offHeapImage = PixelImage.offHeap(IMAGE_WIDTH, height);
+        for (int y = 0; y < height; y++) {
+            offHeapImage.writeRow(0, y, imagePixels, y * IMAGE_WIDTH, IMAGE_WIDTH);
+        }
+        startTime = System.currentTimeMillis();
+        pool.invoke(new TiledImageProcessor(offHeapImage, offHeapImage, BrightnessKernel.preferred(), 32, 16));
+        endTime = System.currentTimeMillis();
+        int[] tiledPixels = new int[imagePixels.length];
+        for (int y = 0; y < height; y++) {
+            offHeapImage.readRow(0, y, tiledPixels, y * IMAGE_WIDTH, IMAGE_WIDTH);
+        }
+        log.info("Tiled {}x{} off-heap image in 32x16 tiles in {} ms (same result: {})",
+                IMAGE_WIDTH, height, (endTime - startTime), Arrays.equals(tiledPixels, processedPixels));
 
+        // Step 10: The same image as a memory-mapped PPM file, processed into another mapped file
+        demonstrateMappedFiles(pool, imagePixels, processedPixels);
+
+        // Step 11: A batch of many small and a few large images, one pool.invoke() per image vs per batch
+        demonstrateBatch(pool);
+
+        // Step 12: Filter and measure luma in the same pass - the input to auto-exposure
+        int[] measuredPixels = new int[imagePixels.length];
+        ImageStatistics before = ImageStatistics.measure(pool, imagePixels);
+        ImageStatistics after = ImageStatistics.filterAndMeasure(pool, imagePixels, measuredPixels, BrightnessKernel.preferred());
+        log.info("Luma before: {} | after brightness: {} (same result: {})",
+                before, after, Arrays.equals(measuredPixels, processedPixels));
+
+        log.info("ForkJoinPools after the image work: {}", poolRegistry.summary());
         log.info("=== ForkJoinPool Demo Completed ===");
     }
 
+    private void demonstrateBatch(ForkJoinPool pool) {
+        List<int[]> batch = new ArrayList<>();
+        for (int i = 0; i < BATCH_SMALL_IMAGES; i++) {
+            batch.add(generateImageData(32 * 32));
+        }
+        for (int i = 0; i < BATCH_LARGE_IMAGES; i++) {
+            batch.add(generateImageData(256 * 256));
+        }
+
+        // Scalar kernel on both sides: in a cold JVM the Vector API kernel would dominate the timings
+        long startTime = System.nanoTime();
+        for (int[] image : batch) {
+            pool.invoke(new InPlaceImageProcessor(image, new int[image.length], 0, image.length, BrightnessKernel.SCALAR));
+        }
+        long oneAtATimeNanos = System.nanoTime() - startTime;
+
+        ImageJobResult result = new ImageJobService(pool, BrightnessKernel.SCALAR, SplitPolicy.adaptive()).process(batch);
+        log.info("One pool.invoke() per image: {} images in {} ms", batch.size(), oneAtATimeNanos / 1_000_000);
+        log.info("ImageJobService batch: {}", result);
+    }
+
+    private void demonstrateMappedFiles(ForkJoinPool pool, int[] imagePixels, int[] processedPixels) {
+        int height = imagePixels.length / IMAGE_WIDTH;
+        Path inputFile = null;
+        Path outputFile = null;
+        try {
+            inputFile = Files.createTempFile("forkjoin-demo-in-", ".ppm");
+            outputFile = Files.createTempFile("forkjoin-demo-out-", ".ppm");
+
+            PixelImage written = ImageFiles.createPpm(inputFile, IMAGE_WIDTH, height);
+            for (int y = 0; y < height; y++) {
+                written.writeRow(0, y, imagePixels, y * IMAGE_WIDTH, IMAGE_WIDTH);
+            }
+            written.force();
+
+            // Neither image is copied onto the heap: tiles read and write the mappings directly
+            PixelImage input = ImageFiles.openPpm(inputFile);
+            PixelImage output = ImageFiles.createPpm(outputFile, input.getWidth(), input.getHeight());
+            long startTime = System.currentTimeMillis();
+            pool.invoke(new TiledImageProcessor(input, output, BrightnessKernel.preferred(), 32, 16));
+            output.force();
+            long endTime = System.currentTimeMillis();
+
+            // PPM has no alpha channel, so compare RGB only
+            boolean same = true;
+            for (int i = 0; i < processedPixels.length && same; i++) {
+                same = (output.get(i % IMAGE_WIDTH, i / IMAGE_WIDTH) & 0xFFFFFF) == (processedPixels[i] & 0xFFFFFF);
+            }
+            log.info("Mapped {}x{} PPM ({} bytes) into {} ({} bytes) in {} ms (same result: {})",
+                    input.getWidth(), input.getHeight(), Files.size(inputFile),
+                    outputFile.getFileName(), Files.size(outputFile), (endTime - startTime), same);
+
+        } catch (IOException e) {
+            log.error("Mapped file demo failed", e);
+        } finally {
+            deleteQuietly(inputFile);
+            deleteQuietly(outputFile);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
     private int[] generateImageData(int size) {
         int[] pixels = new int[size];
         for (int i = 0; i < size; i++) {
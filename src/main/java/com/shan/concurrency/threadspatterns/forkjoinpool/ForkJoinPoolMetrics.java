@@ -0,0 +1,37 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Point-in-time snapshot of one ForkJoinPool, as reported by ForkJoinPoolRegistry.
+ * The counters are the pool's own estimates and are not read atomically together.
+ */
+@Data
+@AllArgsConstructor
+public class ForkJoinPoolMetrics {
+    private String name;
+    private int parallelism;
+    private boolean asyncMode;
+    private int poolSize;
+    private int activeThreads;
+    private int runningThreads;
+    private int queuedSubmissions;
+    private long queuedTasks;
+    private long stealCount;
+
+    public static ForkJoinPoolMetrics of(String name, ForkJoinPool pool) {
+        return new ForkJoinPoolMetrics(name, pool.getParallelism(), pool.getAsyncMode(), pool.getPoolSize(),
+                pool.getActiveThreadCount(), pool.getRunningThreadCount(), pool.getQueuedSubmissionCount(),
+                pool.getQueuedTaskCount(), pool.getStealCount());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-8s parallelism=%d async=%s threads=%d active=%d running=%d submissions=%d tasks=%d steals=%d",
+                name, parallelism, asyncMode, poolSize, activeThreads, runningThreads, queuedSubmissions,
+                queuedTasks, stealCount);
+    }
+}
@@ -0,0 +1,134 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ForkJoinPoolRegistry hands out one dedicated ForkJoinPool per workload, so CPU-heavy image
+ * tasks and blocking-style async API callbacks no longer compete for ForkJoinPool.commonPool()
+ * (which parallel streams and argument-less supplyAsync() also use).
+ *
+ * How it works:
+ * - get(name) creates the pool on first use from threads-patterns.forkjoin.<name>.* properties:
+ *   parallelism (0 or missing = available processors) and async-mode (FIFO local queues)
+ * - register(...) adds a pool with an explicit configuration and thread factory instead
+ * - Worker threads are named <name>-worker-N, and uncaught task exceptions are logged
+ * - metrics() reports steals, queued submissions and active threads per pool
+ * - All pools are shut down when the Spring context closes
+ */
+@Slf4j
+@Component
+public class ForkJoinPoolRegistry implements AutoCloseable {
+
+    public static final String IMAGE_POOL = "image";
+    public static final String API_POOL = "api";
+
+    private static final String PROPERTY_PREFIX = "threads-patterns.forkjoin.";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final Environment environment;
+    private final Map<String, ForkJoinPool> pools = new ConcurrentHashMap<>();
+
+    public ForkJoinPoolRegistry(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * The named pool, created from configuration on first use
+     */
+    public ForkJoinPool get(String name) {
+        return pools.computeIfAbsent(name, key -> {
+            int parallelism = environment.getProperty(PROPERTY_PREFIX + key + ".parallelism", Integer.class, 0);
+            boolean asyncMode = environment.getProperty(PROPERTY_PREFIX + key + ".async-mode", Boolean.class, false);
+            return createPool(key, parallelism, asyncMode, namedThreadFactory(key));
+        });
+    }
+
+    /**
+     * Register a pool with an explicit configuration; fails if the name is already taken
+     */
+    public ForkJoinPool register(String name, int parallelism, boolean asyncMode,
+                                 ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory) {
+        ForkJoinPool pool = createPool(name, parallelism, asyncMode, threadFactory);
+        if (pools.putIfAbsent(name, pool) != null) {
+            pool.shutdownNow();
+            throw new IllegalStateException("ForkJoinPool '" + name + "' is already registered");
+        }
+        return pool;
+    }
+
+    public ForkJoinPoolMetrics metrics(String name) {
+        ForkJoinPool pool = pools.get(name);
+        if (pool == null) {
+            throw new IllegalArgumentException("No ForkJoinPool named '" + name + "'");
+        }
+        return ForkJoinPoolMetrics.of(name, pool);
+    }
+
+    public List<ForkJoinPoolMetrics> metrics() {
+        List<ForkJoinPoolMetrics> metrics = new ArrayList<>();
+        pools.forEach((name, pool) -> metrics.add(ForkJoinPoolMetrics.of(name, pool)));
+        return metrics;
+    }
+
+    /**
+     * One line per pool, for periodic logging
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (ForkJoinPoolMetrics metrics : metrics()) {
+            summary.append(System.lineSeparator()).append("  ").append(metrics);
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Worker factory naming threads <name>-worker-N
+     */
+    public static ForkJoinPool.ForkJoinWorkerThreadFactory namedThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(name + "-worker-" + counter.incrementAndGet());
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(ForkJoinPool::shutdown);
+        pools.forEach((name, pool) -> {
+            try {
+                if (!pool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("ForkJoinPool '{}' did not terminate in {} s - cancelling remaining tasks",
+                            name, SHUTDOWN_TIMEOUT_SECONDS);
+                    pool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                log.error("Interrupted while shutting down ForkJoinPool '{}'", name);
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        });
+        pools.clear();
+    }
+
+    private ForkJoinPool createPool(String name, int parallelism, boolean asyncMode,
+                                    ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory) {
+        int effectiveParallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Creating ForkJoinPool '{}' (parallelism: {}, async mode: {})", name, effectiveParallelism, asyncMode);
+        return new ForkJoinPool(effectiveParallelism, threadFactory,
+                (thread, e) -> log.error("[{}] Uncaught exception in ForkJoinPool '{}'", thread.getName(), name, e),
+                asyncMode);
+    }
+}
@@ -0,0 +1,119 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ForkJoinTrace observes the shape of a fork/join run - split depth, leaf counts, how the
+ * leaves spread over the workers and how many tasks were stolen - without logging from compute().
+ *
+ * Every worker counts into its own plain fields (no locks, no atomics, no strings); the counters
+ * are only combined in end(), after the root task has completed. Leaf timing costs two
+ * System.nanoTime() calls, so only every sampleEvery-th leaf per worker is timed.
+ *
+ * Usage: trace.begin(pool); pool.invoke(task built with trace); trace.end(pool)
+ */
+public class ForkJoinTrace {
+
+    public static final int DEFAULT_SAMPLE_EVERY = 64;
+
+    private final int sampleEvery;
+    private final Queue<WorkerCounters> workers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<WorkerCounters> counters = ThreadLocal.withInitial(this::register);
+    private long stealCountAtBegin;
+    private long beginNanos;
+
+    public ForkJoinTrace() {
+        this(DEFAULT_SAMPLE_EVERY);
+    }
+
+    public ForkJoinTrace(int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be at least 1: " + sampleEvery);
+        }
+        this.sampleEvery = sampleEvery;
+    }
+
+    public void begin(ForkJoinPool pool) {
+        stealCountAtBegin = pool.getStealCount();
+        beginNanos = System.nanoTime();
+    }
+
+    void split(int depth) {
+        WorkerCounters worker = counters.get();
+        worker.splits++;
+        worker.maxDepth = Math.max(worker.maxDepth, depth);
+    }
+
+    /**
+     * Returns the start time for sampled leaves, -1 for the others
+     */
+    long leafStarted() {
+        WorkerCounters worker = counters.get();
+        return worker.leaves++ % sampleEvery == 0 ? System.nanoTime() : -1;
+    }
+
+    void leafFinished(int depth, int pixels, long startNanos) {
+        WorkerCounters worker = counters.get();
+        worker.pixels += pixels;
+        worker.maxDepth = Math.max(worker.maxDepth, depth);
+        if (startNanos >= 0) {
+            long nanos = System.nanoTime() - startNanos;
+            worker.sampledLeaves++;
+            worker.sampledLeafNanos += nanos;
+            worker.maxLeafNanos = Math.max(worker.maxLeafNanos, nanos);
+        }
+    }
+
+    /**
+     * Combine the per-worker counters. Call after the traced task has completed.
+     */
+    public ForkJoinTraceSummary end(ForkJoinPool pool) {
+        long elapsedNanos = System.nanoTime() - beginNanos;
+        long splits = 0;
+        long leaves = 0;
+        long pixels = 0;
+        int maxDepth = 0;
+        long sampledLeaves = 0;
+        long sampledLeafNanos = 0;
+        long maxLeafNanos = 0;
+        List<Long> leavesPerWorker = new ArrayList<>();
+
+        for (WorkerCounters worker : workers) {
+            splits += worker.splits;
+            leaves += worker.leaves;
+            pixels += worker.pixels;
+            maxDepth = Math.max(maxDepth, worker.maxDepth);
+            sampledLeaves += worker.sampledLeaves;
+            sampledLeafNanos += worker.sampledLeafNanos;
+            maxLeafNanos = Math.max(maxLeafNanos, worker.maxLeafNanos);
+            leavesPerWorker.add(worker.leaves);
+        }
+
+        return new ForkJoinTraceSummary(splits, leaves, pixels, maxDepth, leavesPerWorker,
+                pool.getStealCount() - stealCountAtBegin,
+                sampledLeaves == 0 ? 0 : sampledLeafNanos / sampledLeaves, maxLeafNanos, elapsedNanos);
+    }
+
+    private WorkerCounters register() {
+        WorkerCounters worker = new WorkerCounters();
+        workers.add(worker);
+        return worker;
+    }
+
+    /**
+     * Written by a single worker only
+     */
+    private static final class WorkerCounters {
+        long splits;
+        long leaves;
+        long pixels;
+        int maxDepth;
+        long sampledLeaves;
+        long sampledLeafNanos;
+        long maxLeafNanos;
+    }
+}
@@ -0,0 +1,26 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Aggregated result of one ForkJoinTrace.
+ *
+ * stealCount is the pool's steal counter delta, which ForkJoinPool only updates as workers go
+ * idle - treat it as approximate. Leaf times are averaged over the sampled leaves only.
+ */
+@Data
+@AllArgsConstructor
+public class ForkJoinTraceSummary {
+    private long splits;
+    private long leaves;
+    private long pixels;
+    private int maxDepth;
+    private List<Long> leavesPerWorker;
+    private long stealCount;
+    private long averageLeafNanos;
+    private long maxLeafNanos;
+    private long elapsedNanos;
+}
@@ -0,0 +1,21 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+/**
+ * GrayscaleFilter mixes the channels into luma: (77 R + 150 G + 29 B) / 256.
+ */
+final class GrayscaleFilter implements ImageFilter {
+
+    static final GrayscaleFilter INSTANCE = new GrayscaleFilter();
+
+    private GrayscaleFilter() {
+    }
+
+    static int luma(int r, int g, int b) {
+        return (77 * r + 150 * g + 29 * b) >> 8;
+    }
+
+    @Override
+    public String toString() {
+        return "grayscale";
+    }
+}
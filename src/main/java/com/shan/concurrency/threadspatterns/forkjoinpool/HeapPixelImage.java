@@ -0,0 +1,54 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+/**
+ * PixelImage backed by an int[].
+ */
+final class HeapPixelImage extends PixelImage {
+
+    private final int[] pixels;
+
+    HeapPixelImage(int[] pixels, int width, int height, int stride, int offset) {
+        super(width, height, stride, offset);
+        if ((long) offset + (long) (height - 1) * stride + width > pixels.length) {
+            throw new IllegalArgumentException("Array of " + pixels.length + " pixels too small for "
+                    + width + "x" + height + " with stride " + stride);
+        }
+        this.pixels = pixels;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        return pixels[index(x, y)];
+    }
+
+    @Override
+    public void set(int x, int y, int pixel) {
+        pixels[index(x, y)] = pixel;
+    }
+
+    @Override
+    public void readRow(int x, int y, int[] target, int targetOffset, int length) {
+        System.arraycopy(pixels, index(x, y), target, targetOffset, length);
+    }
+
+    @Override
+    public void writeRow(int x, int y, int[] source, int sourceOffset, int length) {
+        System.arraycopy(source, sourceOffset, pixels, index(x, y), length);
+    }
+
+    @Override
+    public PixelImage subImage(int x, int y, int regionWidth, int regionHeight) {
+        checkRegion(x, y, regionWidth, regionHeight);
+        return new HeapPixelImage(pixels, regionWidth, regionHeight, stride, index(x, y));
+    }
+
+    @Override
+    public int[] array() {
+        return pixels;
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return false;
+    }
+}
@@ -0,0 +1,124 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ImageFiles maps image files into memory and returns them as PixelImages, so fork/join tasks
+ * read and write the page cache directly - no heap copy of the image, whatever its size.
+ *
+ * Formats:
+ * - PPM (P6, maxval 255): header plus 3-byte RGB pixels, converted row by row (Rgb24PixelImage)
+ * - Raw ARGB: 4-byte big-endian 0xAARRGGBB pixels, no header, viewed as an IntBuffer directly
+ *
+ * One mapping covers at most 2 GB. Call force() on an output image to write it back before the
+ * process exits; otherwise the OS writes dirty pages back in its own time.
+ */
+public final class ImageFiles {
+
+    private static final int MAX_HEADER_BYTES = 512;
+
+    private ImageFiles() {
+    }
+
+    public static PixelImage openPpm(Path file) throws IOException {
+        MappedByteBuffer buffer = map(file, FileChannel.MapMode.READ_ONLY, -1);
+        int[] header = parsePpmHeader(buffer, file);
+        return new Rgb24PixelImage(buffer, header[2], header[0], header[1], header[0], 0);
+    }
+
+    public static PixelImage createPpm(Path file, int width, int height) throws IOException {
+        byte[] header = ("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII);
+        MappedByteBuffer buffer = map(file, FileChannel.MapMode.READ_WRITE, header.length + (long) width * height * 3);
+        buffer.put(0, header);
+        return new Rgb24PixelImage(buffer, header.length, width, height, width, 0);
+    }
+
+    public static PixelImage openRaw(Path file, int width, int height) throws IOException {
+        return PixelImage.of(map(file, FileChannel.MapMode.READ_ONLY, -1).order(ByteOrder.BIG_ENDIAN), width, height, width);
+    }
+
+    public static PixelImage createRaw(Path file, int width, int height) throws IOException {
+        MappedByteBuffer buffer = map(file, FileChannel.MapMode.READ_WRITE, (long) width * height * Integer.BYTES);
+        return PixelImage.of(buffer.order(ByteOrder.BIG_ENDIAN), width, height, width);
+    }
+
+    static void force(ByteBuffer buffer) {
+        if (buffer instanceof MappedByteBuffer mapped) {
+            mapped.force();
+        }
+    }
+
+    /**
+     * Map the whole file; size >= 0 creates or truncates it to that size first
+     */
+    private static MappedByteBuffer map(Path file, FileChannel.MapMode mode, long size) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            long length = size >= 0 ? size : channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException(file + " is larger than one 2 GB mapping: " + length + " bytes");
+            }
+            return channel.map(mode, 0, length);
+        }
+    }
+
+    /**
+     * Returns {width, height, offset of the first pixel byte}
+     */
+    private static int[] parsePpmHeader(ByteBuffer buffer, Path file) throws IOException {
+        int[] values = new int[3];
+        int position = 0;
+        int limit = Math.min(buffer.capacity(), MAX_HEADER_BYTES);
+        if (limit < 2 || buffer.get(0) != 'P' || buffer.get(1) != '6') {
+            throw new IOException(file + " is not a binary PPM (P6) file");
+        }
+        position = 2;
+
+        for (int field = 0; field < values.length; field++) {
+            // Skip whitespace and # comments
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b == '#') {
+                    while (position < limit && buffer.get(position) != '\n') {
+                        position++;
+                    }
+                } else if (Character.isWhitespace(b)) {
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            int value = 0;
+            int digits = 0;
+            while (position < limit && Character.isDigit(buffer.get(position))) {
+                value = value * 10 + buffer.get(position++) - '0';
+                digits++;
+            }
+            if (digits == 0 || digits > 9) {
+                throw new IOException(file + " has a malformed PPM header");
+            }
+            values[field] = value;
+        }
+        if (values[2] != 255) {
+            throw new IOException(file + " uses maxval " + values[2] + "; only 8-bit PPM (255) is supported");
+        }
+
+        // Exactly one whitespace byte separates the header from the pixels
+        int dataOffset = position + 1;
+        if ((long) dataOffset + (long) values[0] * values[1] * 3 > buffer.capacity()) {
+            throw new IOException(file + " is truncated: " + values[0] + "x" + values[1] + " pixels expected");
+        }
+        return new int[]{values[0], values[1], dataOffset};
+    }
+}
@@ -0,0 +1,62 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.util.Arrays;
+
+/**
+ * ImageFilter is one step of a FilterChain. Pixels are packed 0xAARRGGBB ints; alpha is kept.
+ *
+ * Two kinds of filters:
+ * - Point filters (brightness, contrast, gamma, grayscale) look at one pixel at a time and are
+ *   fused by FilterChain into a single pass
+ * - Neighbourhood filters (blur, convolve) read the surrounding pixels and need a halo of rows
+ *   around every chunk
+ */
+public interface ImageFilter {
+
+    /**
+     * Multiply every channel by factor, clamped to 255 (1.2 = +20%)
+     */
+    static ImageFilter brightness(double factor) {
+        return new ChannelFilter("brightness(" + factor + ")", value -> (int) (value * factor));
+    }
+
+    /**
+     * Stretch every channel away from (factor > 1) or towards (factor < 1) mid-grey
+     */
+    static ImageFilter contrast(double factor) {
+        return new ChannelFilter("contrast(" + factor + ")",
+                value -> (int) Math.round((value - 128) * factor + 128));
+    }
+
+    /**
+     * Gamma correction: gamma > 1 brightens the mid-tones, gamma < 1 darkens them
+     */
+    static ImageFilter gamma(double gamma) {
+        return new ChannelFilter("gamma(" + gamma + ")",
+                value -> (int) Math.round(255 * Math.pow(value / 255.0, 1.0 / gamma)));
+    }
+
+    /**
+     * Replace every channel with the pixel's luma (ITU-R BT.601 weights)
+     */
+    static ImageFilter grayscale() {
+        return GrayscaleFilter.INSTANCE;
+    }
+
+    /**
+     * Box blur over a (2 * radius + 1) square
+     */
+    static ImageFilter blur(int radius) {
+        int size = 2 * radius + 1;
+        int[] weights = new int[size * size];
+        Arrays.fill(weights, 1);
+        return new ConvolutionFilter("blur(" + radius + ")", weights, size);
+    }
+
+    /**
+     * Convolution with a square kernel of odd size (row-major integer weights, normalized by their sum)
+     */
+    static ImageFilter convolve(int[] weights, int size) {
+        return new ConvolutionFilter("convolve(" + size + "x" + size + ")", weights, size);
+    }
+}
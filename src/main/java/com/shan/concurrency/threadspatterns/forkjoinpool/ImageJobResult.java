@@ -0,0 +1,37 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of one ImageJobService batch: the filtered images (in input order) and throughput.
+ *
+ * splitImages counts the images that were large enough to be split with fork/join; the rest
+ * were processed whole, several per task.
+ */
+@Data
+@AllArgsConstructor
+public class ImageJobResult {
+    private List<int[]> outputs;
+    private int images;
+    private long pixels;
+    private int splitImages;
+    private long elapsedNanos;
+
+    public double getImagesPerSecond() {
+        return elapsedNanos == 0 ? 0 : images * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double getPixelsPerSecond() {
+        return elapsedNanos == 0 ? 0 : pixels * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d images (%d split), %d pixels in %.2f ms: %.0f images/s, %.1f Mpixels/s",
+                images, splitImages, pixels, elapsedNanos / 1_000_000.0, getImagesPerSecond(),
+                getPixelsPerSecond() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,132 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ImageJobService applies the brightness filter to a whole batch of images in one pool.invoke(),
+ * choosing per image between parallelism across images and within an image.
+ *
+ * Submitting thousands of small images one at a time pays a submission, a wake-up and a join
+ * per image, and splitting a 1K-pixel image only adds tasks. So:
+ * - An image is split with fork/join (InPlaceImageProcessor) only if it holds more than
+ *   1 / (parallelism * TASKS_PER_WORKER) of the batch's pixels - i.e. it would otherwise be one
+ *   oversized task that leaves workers idle
+ * - All other images are processed whole; a task over a range of them halves the range until
+ *   it covers about that same share of pixels, so small images are load-balanced in groups
+ *
+ * A batch of only large images therefore behaves like one InPlaceImageProcessor per image run
+ * side by side, and a batch of only small ones like a fork/join over the list.
+ */
+public class ImageJobService {
+
+    public static final int TASKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final BrightnessKernel kernel;
+    private final SplitPolicy splitPolicy;
+
+    public ImageJobService(ForkJoinPool pool) {
+        this(pool, BrightnessKernel.preferred(), SplitPolicy.adaptive());
+    }
+
+    /**
+     * splitPolicy applies inside images that are split
+     */
+    public ImageJobService(ForkJoinPool pool, BrightnessKernel kernel, SplitPolicy splitPolicy) {
+        this.pool = pool;
+        this.kernel = kernel;
+        this.splitPolicy = splitPolicy;
+    }
+
+    /**
+     * Filter every image into a new array; the inputs are left untouched
+     */
+    public ImageJobResult process(List<int[]> images) {
+        long startNanos = System.nanoTime();
+        int[][] sources = images.toArray(new int[0][]);
+        int[][] targets = new int[sources.length][];
+        long totalPixels = 0;
+        for (int i = 0; i < sources.length; i++) {
+            targets[i] = new int[sources[i].length];
+            totalPixels += sources[i].length;
+        }
+
+        // Images above the share are split within; the rest go into groups of about that size
+        long share = Math.max(2L * SplitPolicy.DEFAULT_MIN_GRAIN,
+                totalPixels / ((long) pool.getParallelism() * TASKS_PER_WORKER));
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        int[] wholeImages = new int[sources.length];
+        int wholeCount = 0;
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i].length > share) {
+                tasks.add(new InPlaceImageProcessor(sources[i], targets[i], 0, sources[i].length, kernel, splitPolicy));
+            } else {
+                wholeImages[wholeCount++] = i;
+            }
+        }
+        int splitImages = tasks.size();
+        if (wholeCount > 0) {
+            long[] pixelsBefore = new long[wholeCount + 1];
+            for (int i = 0; i < wholeCount; i++) {
+                pixelsBefore[i + 1] = pixelsBefore[i] + sources[wholeImages[i]].length;
+            }
+            tasks.add(new WholeImagesTask(sources, targets, wholeImages, pixelsBefore, 0, wholeCount, share, kernel));
+        }
+
+        // One submission for the whole batch; the tasks are forked from inside the pool
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+        return new ImageJobResult(List.of(targets), sources.length, totalPixels, splitImages, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Processes images wholeImages[from..to) one after another once they add up to at most
+     * maxPixels; pixelsBefore holds their running pixel totals
+     */
+    private static class WholeImagesTask extends RecursiveAction {
+
+        private final int[][] sources;
+        private final int[][] targets;
+        private final int[] wholeImages;
+        private final long[] pixelsBefore;
+        private final int from;
+        private final int to;
+        private final long maxPixels;
+        private final BrightnessKernel kernel;
+
+        WholeImagesTask(int[][] sources, int[][] targets, int[] wholeImages, long[] pixelsBefore,
+                        int from, int to, long maxPixels, BrightnessKernel kernel) {
+            this.sources = sources;
+            this.targets = targets;
+            this.wholeImages = wholeImages;
+            this.pixelsBefore = pixelsBefore;
+            this.from = from;
+            this.to = to;
+            this.maxPixels = maxPixels;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected void compute() {
+            // Base case: one image, or a group small enough to be a single task
+            if (to - from == 1 || pixelsBefore[to] - pixelsBefore[from] <= maxPixels) {
+                for (int i = from; i < to; i++) {
+                    int image = wholeImages[i];
+                    kernel.apply(sources[image], 0, targets[image], 0, sources[image].length);
+                }
+                return;
+            }
+
+            // Recursive case: fork the left half, process the right half in this thread
+            int mid = (from + to) >>> 1;
+            WholeImagesTask leftTask = new WholeImagesTask(sources, targets, wholeImages, pixelsBefore, from, mid, maxPixels, kernel);
+            leftTask.fork();
+            new WholeImagesTask(sources, targets, wholeImages, pixelsBefore, mid, to, maxPixels, kernel).compute();
+            leftTask.join();
+        }
+    }
+}
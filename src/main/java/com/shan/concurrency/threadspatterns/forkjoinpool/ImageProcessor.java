@@ -1,7 +1,5 @@
 package com.shan.concurrency.threadspatterns.forkjoinpool;
 
-import lombok.extern.slf4j.Slf4j;
-
 import java.util.concurrent.RecursiveTask;
 
 /**
@@ -9,85 +7,104 @@ import java.util.concurrent.RecursiveTask;
  * Real-world example: Image filtering/transformation using divide-and-conquer.
  *
  * RecursiveTask<T> returns a result (use RecursiveAction for void tasks)
+ *
+ * How far the range is split is up to the SplitPolicy, adaptive by default. compute() does not
+ * log; pass a ForkJoinTrace to see the shape of the task tree.
  */
-@Slf4j
 public class ImageProcessor extends RecursiveTask<int[]> {
 
     private final int[] pixels;
     private final int start;
     private final int end;
-    private static final int THRESHOLD = 1000; // Process directly if less than threshold
+    private final SplitPolicy splitPolicy;
+    private final ForkJoinTrace trace;
+    private final int depth;
+
+    // Brightness increase by 20% (clamped to 255) for every possible channel value
+    private static final int[] BRIGHTNESS = new int[256];
+
+    static {
+        for (int value = 0; value < BRIGHTNESS.length; value++) {
+            BRIGHTNESS[value] = Math.min(255, (int) (value * 1.2));
+        }
+    }
 
     public ImageProcessor(int[] pixels, int start, int end) {
+        this(pixels, start, end, SplitPolicy.adaptive());
+    }
+
+    public ImageProcessor(int[] pixels, int start, int end, SplitPolicy splitPolicy) {
+        this(pixels, start, end, splitPolicy, null);
+    }
+
+    /**
+     * Root task that records its fork/join tree into trace (null for no tracing)
+     */
+    public ImageProcessor(int[] pixels, int start, int end, SplitPolicy splitPolicy, ForkJoinTrace trace) {
+        this(pixels, start, end, splitPolicy, trace, 0);
+    }
+
+    private ImageProcessor(int[] pixels, int start, int end, SplitPolicy splitPolicy, ForkJoinTrace trace, int depth) {
         this.pixels = pixels;
         this.start = start;
         this.end = end;
+        this.splitPolicy = splitPolicy;
+        this.trace = trace;
+        this.depth = depth;
     }
 
     @Override
     protected int[] compute() {
         int length = end - start;
 
-        log.info("[{}] Processing pixels [{} to {}] (length: {})",
-                Thread.currentThread().getName(), start, end - 1, length);
-
-        // Base case: Small enough to process directly
-        if (length <= THRESHOLD) {
+        // Base case: Small enough (or enough work queued already) to process directly
+        if (!splitPolicy.shouldSplit(length)) {
             return processDirectly();
         }
 
         // Recursive case: Split into subtasks
         int mid = start + length / 2;
-
-        log.info("[{}] Forking task: splitting [{} to {}] into [{} to {}] and [{} to {}]",
-                Thread.currentThread().getName(), start, end - 1,
-                start, mid - 1, mid, end - 1);
+        if (trace != null) {
+            trace.split(depth);
+        }
 
         // Fork left subtask
-        ImageProcessor leftTask = new ImageProcessor(pixels, start, mid);
+        ImageProcessor leftTask = new ImageProcessor(pixels, start, mid, splitPolicy, trace, depth + 1);
         leftTask.fork(); // Asynchronously execute in another thread
 
         // Process right subtask in current thread
-        ImageProcessor rightTask = new ImageProcessor(pixels, mid, end);
+        ImageProcessor rightTask = new ImageProcessor(pixels, mid, end, splitPolicy, trace, depth + 1);
         int[] rightResult = rightTask.compute();
 
         // Join left subtask (wait for completion)
         int[] leftResult = leftTask.join();
 
-        log.info("[{}] Joining results from [{} to {}] and [{} to {}]",
-                Thread.currentThread().getName(), start, mid - 1, mid, end - 1);
-
         // Combine results
         return mergeResults(leftResult, rightResult);
     }
 
     private int[] processDirectly() {
-        log.info("[{}] Processing directly: {} pixels",
-                Thread.currentThread().getName(), end - start);
+        long startNanos = trace != null ? trace.leafStarted() : -1;
 
         int[] result = new int[end - start];
+        BrightnessKernel.preferred().apply(pixels, start, result, 0, result.length);
 
-        for (int i = start; i < end; i++) {
-            // Apply filter: brightness increase by 20%
-            int pixel = pixels[i];
-            int r = (pixel >> 16) & 0xFF;
-            int g = (pixel >> 8) & 0xFF;
-            int b = pixel & 0xFF;
-
-            // Increase brightness (clamp to 255)
-            r = Math.min(255, (int)(r * 1.2));
-            g = Math.min(255, (int)(g * 1.2));
-            b = Math.min(255, (int)(b * 1.2));
-
-            result[i - start] = (r << 16) | (g << 8) | b;
+        if (trace != null) {
+            trace.leafFinished(depth, result.length, startNanos);
         }
-
-        log.info("[{}] Completed direct processing of {} pixels",
-                Thread.currentThread().getName(), end - start);
-
         return result;
     }
 
+    /**
+     * Apply filter: brightness increase by 20%, one pixel at a time (BrightnessKernel.SCALAR)
+     */
+    static int brighten(int pixel) {
+        int r = BRIGHTNESS[(pixel >> 16) & 0xFF];
+        int g = BRIGHTNESS[(pixel >> 8) & 0xFF];
+        int b = BRIGHTNESS[pixel & 0xFF];
+        return (r << 16) | (g << 8) | b;
+    }
+
     private int[] mergeResults(int[] left, int[] right) {
         int[] merged = new int[left.length + right.length];
         System.arraycopy(left, 0, merged, 0, left.length);
@@ -0,0 +1,132 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ImageStatistics is the luma histogram of an image (256 bins) plus what auto-exposure needs
+ * from it: mean brightness and brightness percentiles.
+ *
+ * measure() is a ParallelArrays histogram over the pixels. filterAndMeasure() runs a RowKernel
+ * and measures its output in the same leaf, while the range is still in cache - one pass over
+ * memory instead of two.
+ */
+public final class ImageStatistics {
+
+    public static final int LUMA_LEVELS = 256;
+
+    private final long[] lumaHistogram;
+    private final long[] cumulative;
+    private final long pixels;
+
+    private ImageStatistics(long[] lumaHistogram) {
+        this.lumaHistogram = lumaHistogram;
+        this.cumulative = lumaHistogram.clone();
+        // 256 bins: a sequential scan is cheaper than forking
+        for (int level = 1; level < LUMA_LEVELS; level++) {
+            cumulative[level] += cumulative[level - 1];
+        }
+        this.pixels = cumulative[LUMA_LEVELS - 1];
+    }
+
+    public static ImageStatistics measure(ForkJoinPool pool, int[] pixels) {
+        return new ImageStatistics(ParallelArrays.histogram(pool, pixels, LUMA_LEVELS, ImageStatistics::luma));
+    }
+
+    /**
+     * Filter source into target with kernel and return the statistics of target
+     */
+    public static ImageStatistics filterAndMeasure(ForkJoinPool pool, int[] source, int[] target, RowKernel kernel) {
+        if (target.length < source.length) {
+            throw new IllegalArgumentException("Target (" + target.length + ") smaller than source (" + source.length + ")");
+        }
+        return new ImageStatistics(pool.invoke(new FilterAndMeasureTask(source, target, 0, source.length, kernel,
+                SplitPolicy.adaptive())));
+    }
+
+    static int luma(int pixel) {
+        return GrayscaleFilter.luma((pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF);
+    }
+
+    public long getPixels() {
+        return pixels;
+    }
+
+    public long getCount(int level) {
+        return lumaHistogram[level];
+    }
+
+    public long[] getLumaHistogram() {
+        return lumaHistogram.clone();
+    }
+
+    public double getMeanLuma() {
+        if (pixels == 0) {
+            return 0;
+        }
+        long weighted = 0;
+        for (int level = 0; level < LUMA_LEVELS; level++) {
+            weighted += level * lumaHistogram[level];
+        }
+        return (double) weighted / pixels;
+    }
+
+    /**
+     * Lowest luma level at or below which at least percentile % of the pixels fall
+     */
+    public int getLumaPercentile(double percentile) {
+        long rank = (long) Math.ceil(percentile / 100.0 * pixels);
+        for (int level = 0; level < LUMA_LEVELS; level++) {
+            if (cumulative[level] >= rank) {
+                return level;
+            }
+        }
+        return LUMA_LEVELS - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pixels=%d mean=%.1f p1=%d p50=%d p99=%d", pixels, getMeanLuma(),
+                getLumaPercentile(1), getLumaPercentile(50), getLumaPercentile(99));
+    }
+
+    private static class FilterAndMeasureTask extends RecursiveTask<long[]> {
+
+        private final int[] source;
+        private final int[] target;
+        private final int start;
+        private final int end;
+        private final RowKernel kernel;
+        private final SplitPolicy splitPolicy;
+
+        FilterAndMeasureTask(int[] source, int[] target, int start, int end, RowKernel kernel, SplitPolicy splitPolicy) {
+            this.source = source;
+            this.target = target;
+            this.start = start;
+            this.end = end;
+            this.kernel = kernel;
+            this.splitPolicy = splitPolicy;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (!splitPolicy.shouldSplit(end - start)) {
+                kernel.apply(source, start, target, start, end - start);
+                long[] counts = new long[LUMA_LEVELS];
+                for (int i = start; i < end; i++) {
+                    counts[luma(target[i])]++;
+                }
+                return counts;
+            }
+            int mid = (start + end) >>> 1;
+            FilterAndMeasureTask leftTask = new FilterAndMeasureTask(source, target, start, mid, kernel, splitPolicy);
+            leftTask.fork();
+            long[] right = new FilterAndMeasureTask(source, target, mid, end, kernel, splitPolicy).compute();
+            long[] left = leftTask.join();
+            for (int level = 0; level < LUMA_LEVELS; level++) {
+                left[level] += right[level];
+            }
+            return left;
+        }
+    }
+}
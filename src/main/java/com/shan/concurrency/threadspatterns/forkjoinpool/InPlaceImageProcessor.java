@@ -0,0 +1,93 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * InPlaceImageProcessor applies the same brightness filter as ImageProcessor, but as a
+ * RecursiveAction that writes straight into a caller-supplied target array.
+ *
+ * Every subtask works on its own [start, end) slice of source and target, so no leaf returns an
+ * array and nothing has to be merged: the only allocation is the task objects themselves.
+ * Pass the same array as source and target to filter in place. Leaves run the given
+ * BrightnessKernel, by default the SIMD one when the Vector API is available. How far the
+ * range is split is up to the SplitPolicy, adaptive by default.
+ *
+ * Use Case: large images, where ImageProcessor copies every pixel once per recursion level
+ */
+public class InPlaceImageProcessor extends RecursiveAction {
+
+    private final int[] source;
+    private final int[] target;
+    private final int start;
+    private final int end;
+    private final BrightnessKernel kernel;
+    private final SplitPolicy splitPolicy;
+    private final ForkJoinTrace trace;
+    private final int depth;
+
+    public InPlaceImageProcessor(int[] pixels) {
+        this(pixels, pixels, 0, pixels.length);
+    }
+
+    public InPlaceImageProcessor(int[] source, int[] target, int start, int end) {
+        this(source, target, start, end, BrightnessKernel.preferred());
+    }
+
+    public InPlaceImageProcessor(int[] source, int[] target, int start, int end, BrightnessKernel kernel) {
+        this(source, target, start, end, kernel, SplitPolicy.adaptive());
+    }
+
+    public InPlaceImageProcessor(int[] source, int[] target, int start, int end, BrightnessKernel kernel,
+                                 SplitPolicy splitPolicy) {
+        this(source, target, start, end, kernel, splitPolicy, null);
+    }
+
+    /**
+     * Root task that records its fork/join tree into trace (null for no tracing)
+     */
+    public InPlaceImageProcessor(int[] source, int[] target, int start, int end, BrightnessKernel kernel,
+                                 SplitPolicy splitPolicy, ForkJoinTrace trace) {
+        this(source, target, start, end, kernel, splitPolicy, trace, 0);
+    }
+
+    private InPlaceImageProcessor(int[] source, int[] target, int start, int end, BrightnessKernel kernel,
+                                  SplitPolicy splitPolicy, ForkJoinTrace trace, int depth) {
+        if (target.length < end || source.length < end) {
+            throw new IllegalArgumentException("Range [" + start + ", " + end + ") exceeds source ("
+                    + source.length + ") or target (" + target.length + ")");
+        }
+        this.source = source;
+        this.target = target;
+        this.start = start;
+        this.end = end;
+        this.kernel = kernel;
+        this.splitPolicy = splitPolicy;
+        this.trace = trace;
+        this.depth = depth;
+    }
+
+    @Override
+    protected void compute() {
+        int length = end - start;
+
+        // Base case: Small enough (or enough work queued already) to process directly
+        if (!splitPolicy.shouldSplit(length)) {
+            long startNanos = trace != null ? trace.leafStarted() : -1;
+            kernel.apply(source, start, target, start, length);
+            if (trace != null) {
+                trace.leafFinished(depth, length, startNanos);
+            }
+            return;
+        }
+
+        // Recursive case: fork the left half, process the right half in this thread
+        int mid = start + length / 2;
+        if (trace != null) {
+            trace.split(depth);
+        }
+        InPlaceImageProcessor leftTask = new InPlaceImageProcessor(source, target, start, mid, kernel, splitPolicy, trace, depth + 1);
+        leftTask.fork();
+        new InPlaceImageProcessor(source, target, mid, end, kernel, splitPolicy, trace, depth + 1).compute();
+        leftTask.join();
+    }
+}
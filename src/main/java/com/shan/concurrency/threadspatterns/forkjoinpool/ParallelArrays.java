@@ -0,0 +1,383 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * ParallelArrays holds fork/join building blocks over primitive arrays: reduce, scan (prefix
+ * sum) and histogram, for int[], long[] and double[] - no boxing per element, unlike
+ * IntStream.parallel().
+ *
+ * How it works:
+ * - reduce/histogram: RecursiveTasks split by a SplitPolicy; each leaf folds its range
+ *   sequentially and the halves are combined on join (histograms by adding the bins)
+ * - scan: two passes over fixed blocks - scan every block in parallel, scan the block totals
+ *   sequentially, then add each block's carry in parallel. Blocks are sized by the pool's
+ *   parallelism, so the sequential middle step stays tiny
+ *
+ * Operators must be associative, and identity must be neutral for them. Double results can
+ * differ in the last bits between runs, as the split points depend on stealing.
+ */
+public final class ParallelArrays {
+
+    private static final int BLOCKS_PER_WORKER = 4;
+
+    private ParallelArrays() {
+    }
+
+    // ---- reduce ----
+
+    public static int reduce(ForkJoinPool pool, int[] array, int identity, IntBinaryOperator op) {
+        return pool.invoke(new IntReduceTask(array, 0, array.length, identity, op, SplitPolicy.adaptive()));
+    }
+
+    public static long reduce(ForkJoinPool pool, long[] array, long identity, LongBinaryOperator op) {
+        return pool.invoke(new LongReduceTask(array, 0, array.length, identity, op, SplitPolicy.adaptive()));
+    }
+
+    public static double reduce(ForkJoinPool pool, double[] array, double identity, DoubleBinaryOperator op) {
+        return pool.invoke(new DoubleReduceTask(array, 0, array.length, identity, op, SplitPolicy.adaptive()));
+    }
+
+    /**
+     * Sum of an int array without overflow
+     */
+    public static long sum(ForkJoinPool pool, int[] array) {
+        return pool.invoke(new IntSumTask(array, 0, array.length, SplitPolicy.adaptive()));
+    }
+
+    // ---- scan ----
+
+    /**
+     * Replace every element with op applied over all elements up to and including it
+     */
+    public static void scan(ForkJoinPool pool, int[] array, int identity, IntBinaryOperator op) {
+        int blockSize = blockSize(pool, array.length);
+        int blocks = blockCount(array.length, blockSize);
+        int[] carries = new int[blocks];
+        pool.invoke(new BlockAction(0, blocks, block -> {
+            int start = block * blockSize;
+            int end = Math.min(array.length, start + blockSize);
+            for (int i = start + 1; i < end; i++) {
+                array[i] = op.applyAsInt(array[i - 1], array[i]);
+            }
+            carries[block] = array[end - 1];
+        }));
+        int carry = identity;
+        for (int block = 0; block < blocks; block++) {
+            int total = carries[block];
+            carries[block] = carry;
+            carry = op.applyAsInt(carry, total);
+        }
+        pool.invoke(new BlockAction(1, blocks, block -> {
+            int start = block * blockSize;
+            int end = Math.min(array.length, start + blockSize);
+            for (int i = start; i < end; i++) {
+                array[i] = op.applyAsInt(carries[block], array[i]);
+            }
+        }));
+    }
+
+    public static void scan(ForkJoinPool pool, long[] array, long identity, LongBinaryOperator op) {
+        int blockSize = blockSize(pool, array.length);
+        int blocks = blockCount(array.length, blockSize);
+        long[] carries = new long[blocks];
+        pool.invoke(new BlockAction(0, blocks, block -> {
+            int start = block * blockSize;
+            int end = Math.min(array.length, start + blockSize);
+            for (int i = start + 1; i < end; i++) {
+                array[i] = op.applyAsLong(array[i - 1], array[i]);
+            }
+            carries[block] = array[end - 1];
+        }));
+        long carry = identity;
+        for (int block = 0; block < blocks; block++) {
+            long total = carries[block];
+            carries[block] = carry;
+            carry = op.applyAsLong(carry, total);
+        }
+        pool.invoke(new BlockAction(1, blocks, block -> {
+            int start = block * blockSize;
+            int end = Math.min(array.length, start + blockSize);
+            for (int i = start; i < end; i++) {
+                array[i] = op.applyAsLong(carries[block], array[i]);
+            }
+        }));
+    }
+
+    public static void scan(ForkJoinPool pool, double[] array, double identity, DoubleBinaryOperator op) {
+        int blockSize = blockSize(pool, array.length);
+        int blocks = blockCount(array.length, blockSize);
+        double[] carries = new double[blocks];
+        pool.invoke(new BlockAction(0, blocks, block -> {
+            int start = block * blockSize;
+            int end = Math.min(array.length, start + blockSize);
+            for (int i = start + 1; i < end; i++) {
+                array[i] = op.applyAsDouble(array[i - 1], array[i]);
+            }
+            carries[block] = array[end - 1];
+        }));
+        double carry = identity;
+        for (int block = 0; block < blocks; block++) {
+            double total = carries[block];
+            carries[block] = carry;
+            carry = op.applyAsDouble(carry, total);
+        }
+        pool.invoke(new BlockAction(1, blocks, block -> {
+            int start = block * blockSize;
+            int end = Math.min(array.length, start + blockSize);
+            for (int i = start; i < end; i++) {
+                array[i] = op.applyAsDouble(carries[block], array[i]);
+            }
+        }));
+    }
+
+    /**
+     * In-place inclusive prefix sum
+     */
+    public static void prefixSum(ForkJoinPool pool, int[] array) {
+        scan(pool, array, 0, Integer::sum);
+    }
+
+    public static void prefixSum(ForkJoinPool pool, long[] array) {
+        scan(pool, array, 0L, Long::sum);
+    }
+
+    public static void prefixSum(ForkJoinPool pool, double[] array) {
+        scan(pool, array, 0.0, Double::sum);
+    }
+
+    // ---- histogram ----
+
+    /**
+     * Count values per bin; binOf maps a value to its bin in [0, bins)
+     */
+    public static long[] histogram(ForkJoinPool pool, int[] values, int bins, IntUnaryOperator binOf) {
+        return pool.invoke(new HistogramTask(values, 0, values.length, bins, binOf, SplitPolicy.adaptive()));
+    }
+
+    private static int blockSize(ForkJoinPool pool, int length) {
+        int blocks = pool.getParallelism() * BLOCKS_PER_WORKER;
+        return Math.max(SplitPolicy.DEFAULT_MIN_GRAIN, (int) ((length + (long) blocks - 1) / blocks));
+    }
+
+    private static int blockCount(int length, int blockSize) {
+        return (int) ((length + (long) blockSize - 1) / blockSize);
+    }
+
+    /**
+     * Runs block.accept(b) for every block b in [from, to)
+     */
+    private static class BlockAction extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final IntConsumer block;
+
+        BlockAction(int from, int to, IntConsumer block) {
+            this.from = from;
+            this.to = to;
+            this.block = block;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    block.accept(from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            BlockAction leftTask = new BlockAction(from, mid, block);
+            leftTask.fork();
+            new BlockAction(mid, to, block).compute();
+            leftTask.join();
+        }
+    }
+
+    private static class IntReduceTask extends RecursiveTask<Integer> {
+
+        private final int[] array;
+        private final int start;
+        private final int end;
+        private final int identity;
+        private final IntBinaryOperator op;
+        private final SplitPolicy splitPolicy;
+
+        IntReduceTask(int[] array, int start, int end, int identity, IntBinaryOperator op, SplitPolicy splitPolicy) {
+            this.array = array;
+            this.start = start;
+            this.end = end;
+            this.identity = identity;
+            this.op = op;
+            this.splitPolicy = splitPolicy;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (!splitPolicy.shouldSplit(end - start)) {
+                int result = identity;
+                for (int i = start; i < end; i++) {
+                    result = op.applyAsInt(result, array[i]);
+                }
+                return result;
+            }
+            int mid = (start + end) >>> 1;
+            IntReduceTask leftTask = new IntReduceTask(array, start, mid, identity, op, splitPolicy);
+            leftTask.fork();
+            int right = new IntReduceTask(array, mid, end, identity, op, splitPolicy).compute();
+            return op.applyAsInt(leftTask.join(), right);
+        }
+    }
+
+    private static class LongReduceTask extends RecursiveTask<Long> {
+
+        private final long[] array;
+        private final int start;
+        private final int end;
+        private final long identity;
+        private final LongBinaryOperator op;
+        private final SplitPolicy splitPolicy;
+
+        LongReduceTask(long[] array, int start, int end, long identity, LongBinaryOperator op, SplitPolicy splitPolicy) {
+            this.array = array;
+            this.start = start;
+            this.end = end;
+            this.identity = identity;
+            this.op = op;
+            this.splitPolicy = splitPolicy;
+        }
+
+        @Override
+        protected Long compute() {
+            if (!splitPolicy.shouldSplit(end - start)) {
+                long result = identity;
+                for (int i = start; i < end; i++) {
+                    result = op.applyAsLong(result, array[i]);
+                }
+                return result;
+            }
+            int mid = (start + end) >>> 1;
+            LongReduceTask leftTask = new LongReduceTask(array, start, mid, identity, op, splitPolicy);
+            leftTask.fork();
+            long right = new LongReduceTask(array, mid, end, identity, op, splitPolicy).compute();
+            return op.applyAsLong(leftTask.join(), right);
+        }
+    }
+
+    private static class DoubleReduceTask extends RecursiveTask<Double> {
+
+        private final double[] array;
+        private final int start;
+        private final int end;
+        private final double identity;
+        private final DoubleBinaryOperator op;
+        private final SplitPolicy splitPolicy;
+
+        DoubleReduceTask(double[] array, int start, int end, double identity, DoubleBinaryOperator op,
+                         SplitPolicy splitPolicy) {
+            this.array = array;
+            this.start = start;
+            this.end = end;
+            this.identity = identity;
+            this.op = op;
+            this.splitPolicy = splitPolicy;
+        }
+
+        @Override
+        protected Double compute() {
+            if (!splitPolicy.shouldSplit(end - start)) {
+                double result = identity;
+                for (int i = start; i < end; i++) {
+                    result = op.applyAsDouble(result, array[i]);
+                }
+                return result;
+            }
+            int mid = (start + end) >>> 1;
+            DoubleReduceTask leftTask = new DoubleReduceTask(array, start, mid, identity, op, splitPolicy);
+            leftTask.fork();
+            double right = new DoubleReduceTask(array, mid, end, identity, op, splitPolicy).compute();
+            return op.applyAsDouble(leftTask.join(), right);
+        }
+    }
+
+    /**
+     * Widening sum; a plain loop the JIT can vectorize, unlike a reduce through an operator
+     */
+    private static class IntSumTask extends RecursiveTask<Long> {
+
+        private final int[] array;
+        private final int start;
+        private final int end;
+        private final SplitPolicy splitPolicy;
+
+        IntSumTask(int[] array, int start, int end, SplitPolicy splitPolicy) {
+            this.array = array;
+            this.start = start;
+            this.end = end;
+            this.splitPolicy = splitPolicy;
+        }
+
+        @Override
+        protected Long compute() {
+            if (!splitPolicy.shouldSplit(end - start)) {
+                long sum = 0;
+                for (int i = start; i < end; i++) {
+                    sum += array[i];
+                }
+                return sum;
+            }
+            int mid = (start + end) >>> 1;
+            IntSumTask leftTask = new IntSumTask(array, start, mid, splitPolicy);
+            leftTask.fork();
+            long right = new IntSumTask(array, mid, end, splitPolicy).compute();
+            return leftTask.join() + right;
+        }
+    }
+
+    private static class HistogramTask extends RecursiveTask<long[]> {
+
+        private final int[] values;
+        private final int start;
+        private final int end;
+        private final int bins;
+        private final IntUnaryOperator binOf;
+        private final SplitPolicy splitPolicy;
+
+        HistogramTask(int[] values, int start, int end, int bins, IntUnaryOperator binOf, SplitPolicy splitPolicy) {
+            this.values = values;
+            this.start = start;
+            this.end = end;
+            this.bins = bins;
+            this.binOf = binOf;
+            this.splitPolicy = splitPolicy;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (!splitPolicy.shouldSplit(end - start)) {
+                long[] counts = new long[bins];
+                for (int i = start; i < end; i++) {
+                    counts[binOf.applyAsInt(values[i])]++;
+                }
+                return counts;
+            }
+            int mid = (start + end) >>> 1;
+            HistogramTask leftTask = new HistogramTask(values, start, mid, bins, binOf, splitPolicy);
+            leftTask.fork();
+            long[] right = new HistogramTask(values, mid, end, bins, binOf, splitPolicy).compute();
+            long[] left = leftTask.join();
+            for (int bin = 0; bin < bins; bin++) {
+                left[bin] += right[bin];
+            }
+            return left;
+        }
+    }
+}
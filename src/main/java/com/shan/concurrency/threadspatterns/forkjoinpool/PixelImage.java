@@ -0,0 +1,127 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * PixelImage is a 2D image of packed 0xAARRGGBB pixels: width x height pixels, rows stride
+ * pixels apart in row-major order.
+ *
+ * Three storages:
+ * - onHeap: an int[] - the kernels work on the array directly
+ * - offHeap / of(ByteBuffer): an IntBuffer over direct or memory-mapped memory (ImageFiles maps
+ *   raw ARGB files this way), which keeps multi-hundred-MB images out of the Java heap (up to
+ *   2^31 bytes per buffer)
+ * - Packed 3-byte RGB (Rgb24PixelImage), converted row by row; ImageFiles uses it for PPM files
+ *
+ * subImage() returns a view on a rectangle of the same storage, sharing the stride.
+ */
+public abstract class PixelImage {
+
+    protected final int width;
+    protected final int height;
+    protected final int stride;
+    protected final int offset;
+
+    protected PixelImage(int width, int height, int stride, int offset) {
+        if (width <= 0 || height <= 0 || stride < width) {
+            throw new IllegalArgumentException("Invalid image " + width + "x" + height + " with stride " + stride);
+        }
+        this.width = width;
+        this.height = height;
+        this.stride = stride;
+        this.offset = offset;
+    }
+
+    public static PixelImage onHeap(int width, int height) {
+        return new HeapPixelImage(new int[checkedSize(width, height)], width, height, width, 0);
+    }
+
+    public static PixelImage wrap(int[] pixels, int width, int height) {
+        return new HeapPixelImage(pixels, width, height, width, 0);
+    }
+
+    public static PixelImage offHeap(int width, int height) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(checkedSize(width, height) * Integer.BYTES);
+        return new BufferPixelImage(buffer.order(ByteOrder.nativeOrder()), width, height, width, 0);
+    }
+
+    /**
+     * View a (direct, heap or memory-mapped) buffer as an image, using the buffer's byte order.
+     * The buffer's position marks pixel 0.
+     */
+    public static PixelImage of(ByteBuffer buffer, int width, int height, int stride) {
+        return new BufferPixelImage(buffer, width, height, stride, 0);
+    }
+
+    public abstract int get(int x, int y);
+
+    public abstract void set(int x, int y, int pixel);
+
+    /**
+     * Copy length pixels of row y starting at column x into target
+     */
+    public abstract void readRow(int x, int y, int[] target, int targetOffset, int length);
+
+    /**
+     * Copy length pixels from source into row y starting at column x
+     */
+    public abstract void writeRow(int x, int y, int[] source, int sourceOffset, int length);
+
+    /**
+     * View on the given rectangle, backed by the same storage
+     */
+    public abstract PixelImage subImage(int x, int y, int width, int height);
+
+    /**
+     * Backing array for heap images, null for off-heap ones
+     */
+    public abstract int[] array();
+
+    public abstract boolean isOffHeap();
+
+    /**
+     * Write a memory-mapped image back to its file; no-op for other storage
+     */
+    public void force() {
+    }
+
+    /**
+     * Index of pixel (x, y) in array() or the backing buffer
+     */
+    public int index(int x, int y) {
+        return offset + y * stride + x;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public long getPixelCount() {
+        return (long) width * height;
+    }
+
+    protected void checkRegion(int x, int y, int regionWidth, int regionHeight) {
+        if (x < 0 || y < 0 || regionWidth <= 0 || regionHeight <= 0
+                || x + regionWidth > width || y + regionHeight > height) {
+            throw new IllegalArgumentException("Region " + x + "," + y + " " + regionWidth + "x" + regionHeight
+                    + " outside " + width + "x" + height + " image");
+        }
+    }
+
+    private static int checkedSize(int width, int height) {
+        long pixels = (long) width * height;
+        if (pixels > Integer.MAX_VALUE / Integer.BYTES) {
+            throw new IllegalArgumentException("Image too large for one buffer: " + width + "x" + height);
+        }
+        return (int) pixels;
+    }
+}
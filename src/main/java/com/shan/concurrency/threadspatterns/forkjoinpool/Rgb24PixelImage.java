@@ -0,0 +1,95 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * PixelImage over packed 3-byte R, G, B pixels (the PPM P6 layout), typically a mapped file.
+ * Rows are converted to and from 0xFFRRGGBB ints on the way through; stride is in pixels.
+ */
+final class Rgb24PixelImage extends PixelImage {
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[0]);
+
+    private final ByteBuffer bytes;
+    private final int dataOffset;
+
+    Rgb24PixelImage(ByteBuffer bytes, int dataOffset, int width, int height, int stride, int offset) {
+        super(width, height, stride, offset);
+        if (dataOffset + ((long) offset + (long) (height - 1) * stride + width) * 3 > bytes.capacity()) {
+            throw new IllegalArgumentException("Buffer of " + bytes.capacity() + " bytes too small for "
+                    + width + "x" + height + " RGB pixels");
+        }
+        this.bytes = bytes;
+        this.dataOffset = dataOffset;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        int position = position(x, y);
+        return 0xFF000000 | (bytes.get(position) & 0xFF) << 16 | (bytes.get(position + 1) & 0xFF) << 8
+                | (bytes.get(position + 2) & 0xFF);
+    }
+
+    @Override
+    public void set(int x, int y, int pixel) {
+        int position = position(x, y);
+        bytes.put(position, (byte) (pixel >> 16));
+        bytes.put(position + 1, (byte) (pixel >> 8));
+        bytes.put(position + 2, (byte) pixel);
+    }
+
+    @Override
+    public void readRow(int x, int y, int[] target, int targetOffset, int length) {
+        byte[] row = scratch(length * 3);
+        bytes.get(position(x, y), row, 0, length * 3);
+        for (int i = 0, b = 0; i < length; i++, b += 3) {
+            target[targetOffset + i] = 0xFF000000 | (row[b] & 0xFF) << 16 | (row[b + 1] & 0xFF) << 8 | (row[b + 2] & 0xFF);
+        }
+    }
+
+    @Override
+    public void writeRow(int x, int y, int[] source, int sourceOffset, int length) {
+        byte[] row = scratch(length * 3);
+        for (int i = 0, b = 0; i < length; i++, b += 3) {
+            int pixel = source[sourceOffset + i];
+            row[b] = (byte) (pixel >> 16);
+            row[b + 1] = (byte) (pixel >> 8);
+            row[b + 2] = (byte) pixel;
+        }
+        bytes.put(position(x, y), row, 0, length * 3);
+    }
+
+    @Override
+    public PixelImage subImage(int x, int y, int regionWidth, int regionHeight) {
+        checkRegion(x, y, regionWidth, regionHeight);
+        return new Rgb24PixelImage(bytes, dataOffset, regionWidth, regionHeight, stride, index(x, y));
+    }
+
+    @Override
+    public int[] array() {
+        return null;
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return bytes.isDirect();
+    }
+
+    @Override
+    public void force() {
+        ImageFiles.force(bytes);
+    }
+
+    private int position(int x, int y) {
+        return dataOffset + index(x, y) * 3;
+    }
+
+    private static byte[] scratch(int length) {
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new byte[length];
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+}
@@ -0,0 +1,15 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+/**
+ * RowKernel is a point operation over a run of consecutive pixels - the unit of work a
+ * TiledImageProcessor hands out per tile row. BrightnessKernel is one; so is any FilterChain
+ * made of point filters only.
+ */
+@FunctionalInterface
+public interface RowKernel {
+
+    /**
+     * Filter length pixels from source into target; source and target may be the same array
+     */
+    void apply(int[] source, int sourceOffset, int[] target, int targetOffset, int length);
+}
@@ -0,0 +1,82 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * SplitPolicy decides whether a fork/join image task splits again or processes its range.
+ *
+ * - fixed(threshold): split while the range is larger than threshold (the classic constant).
+ *   Too small for big images - millions of tiny tasks - and too large for small ones on big
+ *   machines.
+ * - adaptive(minGrain, maxSurplus): split only while this worker has at most maxSurplus tasks
+ *   queued that nobody has stolen yet (ForkJoinTask.getSurplusQueuedTaskCount()), never below
+ *   minGrain pixels, and never on a single-threaded pool. Idle workers steal the big halves
+ *   first and split those further, so the number of tasks follows the number of hungry workers
+ *   instead of the image size.
+ *
+ * The default grain of 8K pixels (32 KB) keeps a leaf within a typical L1 data cache.
+ */
+public final class SplitPolicy {
+
+    public static final int DEFAULT_MIN_GRAIN = 8 * 1024;
+    public static final int DEFAULT_MAX_SURPLUS = 3;
+
+    private static final SplitPolicy ADAPTIVE = new SplitPolicy(true, DEFAULT_MIN_GRAIN, DEFAULT_MAX_SURPLUS);
+
+    private final boolean adaptive;
+    private final int grain;
+    private final int maxSurplus;
+
+    private SplitPolicy(boolean adaptive, int grain, int maxSurplus) {
+        if (grain < 1 || maxSurplus < 0) {
+            throw new IllegalArgumentException("grain must be positive and maxSurplus non-negative: "
+                    + grain + ", " + maxSurplus);
+        }
+        this.adaptive = adaptive;
+        this.grain = grain;
+        this.maxSurplus = maxSurplus;
+    }
+
+    public static SplitPolicy fixed(int threshold) {
+        return new SplitPolicy(false, threshold, 0);
+    }
+
+    public static SplitPolicy adaptive() {
+        return ADAPTIVE;
+    }
+
+    public static SplitPolicy adaptive(int minGrain, int maxSurplus) {
+        return new SplitPolicy(true, minGrain, maxSurplus);
+    }
+
+    /**
+     * Adaptive policy whose leaves fit into cacheBytes of int pixels (e.g. the L2 size)
+     */
+    public static SplitPolicy forCacheSize(int cacheBytes) {
+        return adaptive(Math.max(1, cacheBytes / Integer.BYTES), DEFAULT_MAX_SURPLUS);
+    }
+
+    /**
+     * Called from compute() of a task covering length pixels
+     */
+    public boolean shouldSplit(int length) {
+        if (!adaptive) {
+            return length > grain;
+        }
+        // Both halves must still be at least one grain
+        if (length < 2 * grain) {
+            return false;
+        }
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        if (pool != null && pool.getParallelism() == 1) {
+            return false;
+        }
+        return ForkJoinTask.getSurplusQueuedTaskCount() <= maxSurplus;
+    }
+
+    @Override
+    public String toString() {
+        return adaptive ? "adaptive(minGrain=" + grain + ", maxSurplus=" + maxSurplus + ")" : "fixed(" + grain + ")";
+    }
+}
@@ -0,0 +1,44 @@
+package com.shan.concurrency.threadspatterns.forkjoinpool;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of BrightnessKernel.VECTOR. Kept in its own class so the Vector API is
+ * only loaded when this kernel is actually used.
+ */
+final class VectorBrightness {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorBrightness() {
+    }
+
+    static void apply(int[] source, int sourceOffset, int[] target, int targetOffset, int length) {
+        int i = 0;
+        int upperBound = SPECIES.loopBound(length);
+        // Everything stays in one method: a vector passed to a call that is not inlined gets boxed
+        for (; i < upperBound; i += SPECIES.length()) {
+            IntVector pixels = IntVector.fromArray(SPECIES, source, sourceOffset + i);
+            IntVector r = pixels.lanewise(VectorOperators.LSHR, 16).and(0xFF)
+                    .mul(BrightnessKernel.FIXED_POINT_SCALE)
+                    .lanewise(VectorOperators.ASHR, BrightnessKernel.FIXED_POINT_SHIFT)
+                    .min(255);
+            IntVector g = pixels.lanewise(VectorOperators.LSHR, 8).and(0xFF)
+                    .mul(BrightnessKernel.FIXED_POINT_SCALE)
+                    .lanewise(VectorOperators.ASHR, BrightnessKernel.FIXED_POINT_SHIFT)
+                    .min(255);
+            IntVector b = pixels.and(0xFF)
+                    .mul(BrightnessKernel.FIXED_POINT_SCALE)
+                    .lanewise(VectorOperators.ASHR, BrightnessKernel.FIXED_POINT_SHIFT)
+                    .min(255);
+            r.lanewise(VectorOperators.LSHL, 16)
+                    .or(g.lanewise(VectorOperators.LSHL, 8))
+                    .or(b)
+                    .intoArray(target, targetOffset + i);
+        }
+        // Tail shorter than one vector
+        BrightnessKernel.SCALAR.apply(source, sourceOffset + i, target, targetOffset + i, length - i);
+    }
+}
@@ -0,0 +1,25 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import java.util.List;
+
+/**
+ * Account is the single-account API shared by the lock variants: BankAccount (ReentrantLock),
+ * ReadWriteLockAccount and StampedLockAccount. AccountLocking creates one by name.
+ */
+public interface Account {
+
+    void deposit(double amount, String transactionId);
+
+    /**
+     * Leaves the balance unchanged on insufficient funds
+     */
+    void withdraw(double amount, String transactionId);
+
+    double getBalance();
+
+    /**
+     * Apply transactions (all against this account) in order under one lock acquisition, writing
+     * the balance once; result[i] is false where transaction i failed for insufficient funds
+     */
+    boolean[] applyBatch(List<BankTransaction> transactions);
+}
@@ -0,0 +1,26 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import java.time.Duration;
+
+/**
+ * AccountLocking selects the Account implementation, e.g. from the
+ * threads-patterns.reentrantlock.account-locking property.
+ *
+ * - REENTRANT_LOCK: BankAccount, one exclusive lock for reads and writes
+ * - READ_WRITE_LOCK: ReadWriteLockAccount, shared read lock
+ * - STAMPED_LOCK: StampedLockAccount, optimistic reads that take no lock at all when no write
+ *   overlaps - the best fit for overwhelmingly read traffic
+ */
+public enum AccountLocking {
+    REENTRANT_LOCK,
+    READ_WRITE_LOCK,
+    STAMPED_LOCK;
+
+    public Account create(String accountId, double initialBalance, Duration processingTime) {
+        return switch (this) {
+            case REENTRANT_LOCK -> new BankAccount(accountId, initialBalance, false, processingTime);
+            case READ_WRITE_LOCK -> new ReadWriteLockAccount(accountId, initialBalance, processingTime);
+            case STAMPED_LOCK -> new StampedLockAccount(accountId, initialBalance, processingTime);
+        };
+    }
+}
@@ -0,0 +1,210 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AccountStore holds millions of accounts, keyed by int id, with balances in long cents and one
+ * ReentrantLock per stripe of accounts instead of one lock (or one object) per account.
+ *
+ * How it works:
+ * - Account id maps to stripe id & (stripes - 1) and slot id >>> log2(stripes); every stripe owns
+ *   its own long[], padded with 128 bytes at both ends so the balances of two stripes never share
+ *   a cache line (or an adjacent-line prefetch pair), even when the arrays are allocated back to back
+ * - deposit/withdraw lock the account's stripe; transfer locks both stripes, always the lower
+ *   stripe index first. With one global lock order no two transfers can each hold the lock the
+ *   other waits for, so A->B and B->A running together cannot deadlock
+ * - A transfer inside one stripe takes a single lock (ReentrantLock would allow taking it
+ *   twice, but there is no need)
+ * - getBalance() reads one account without locking (release writes, acquire reads);
+ *   getTotalBalance() locks every stripe in order for a consistent snapshot
+ *
+ * More stripes mean fewer threads queueing on the same lock; a few times the core count is enough.
+ */
+public class AccountStore {
+
+    private static final int MAX_STRIPES = 1 << 16;
+    // 16 longs = 128 bytes of unused slots before and after the balances of each stripe
+    private static final int PADDING = 16;
+
+    private static final VarHandle BALANCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int accounts;
+    private final int stripeBits;
+    private final int stripeMask;
+    private final long[][] balances;
+    private final ReentrantLock[] locks;
+
+    /**
+     * Stripe count of four per available processor
+     */
+    public AccountStore(int accounts, long initialBalanceCents) {
+        this(accounts, initialBalanceCents, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * stripes is rounded up to a power of two (at most 65536)
+     */
+    public AccountStore(int accounts, long initialBalanceCents, int stripes) {
+        if (accounts < 1 || stripes < 1 || initialBalanceCents < 0) {
+            throw new IllegalArgumentException("Need at least one account and stripe and a non-negative balance: "
+                    + accounts + ", " + stripes + ", " + initialBalanceCents);
+        }
+        int stripeCount = Integer.highestOneBit(Math.min(Math.min(stripes, accounts), MAX_STRIPES) * 2 - 1);
+        this.accounts = accounts;
+        this.stripeBits = Integer.numberOfTrailingZeros(stripeCount);
+        this.stripeMask = stripeCount - 1;
+        this.balances = new long[stripeCount][];
+        this.locks = new ReentrantLock[stripeCount];
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            // Ids stripe, stripe + stripeCount, ... live in this stripe
+            int size = (accounts - stripe + stripeCount - 1) >>> stripeBits;
+            balances[stripe] = new long[PADDING + size + PADDING];
+            Arrays.fill(balances[stripe], PADDING, PADDING + size, initialBalanceCents);
+            locks[stripe] = new ReentrantLock();
+        }
+    }
+
+    public void deposit(int accountId, long amountCents) {
+        requirePositive(amountCents);
+        int stripe = stripeOf(accountId);
+        long[] stripeBalances = balances[stripe];
+        int slot = slotOf(accountId);
+        ReentrantLock lock = locks[stripe];
+        lock.lock();
+        try {
+            BALANCES.setRelease(stripeBalances, slot, Math.addExact(stripeBalances[slot], amountCents));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return false (and no change) on insufficient funds
+     */
+    public boolean withdraw(int accountId, long amountCents) {
+        requirePositive(amountCents);
+        int stripe = stripeOf(accountId);
+        long[] stripeBalances = balances[stripe];
+        int slot = slotOf(accountId);
+        ReentrantLock lock = locks[stripe];
+        lock.lock();
+        try {
+            long balance = stripeBalances[slot];
+            if (balance < amountCents) {
+                return false;
+            }
+            BALANCES.setRelease(stripeBalances, slot, balance - amountCents);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move amountCents between two accounts atomically; a transfer to the same account changes
+     * nothing and only reports whether the funds were there
+     *
+     * @return false (and no change) if from has insufficient funds
+     */
+    public boolean transfer(int fromAccountId, int toAccountId, long amountCents) {
+        requirePositive(amountCents);
+        if (fromAccountId == toAccountId) {
+            checkId(fromAccountId);
+            return getBalance(fromAccountId) >= amountCents;
+        }
+        int fromStripe = stripeOf(fromAccountId);
+        int toStripe = stripeOf(toAccountId);
+
+        // Lock ordering: lower stripe first, whatever the direction of the transfer
+        ReentrantLock first = locks[Math.min(fromStripe, toStripe)];
+        ReentrantLock second = fromStripe == toStripe ? null : locks[Math.max(fromStripe, toStripe)];
+        first.lock();
+        try {
+            if (second != null) {
+                second.lock();
+            }
+            try {
+                long[] fromBalances = balances[fromStripe];
+                long[] toBalances = balances[toStripe];
+                int fromSlot = slotOf(fromAccountId);
+                int toSlot = slotOf(toAccountId);
+                long fromBalance = fromBalances[fromSlot];
+                if (fromBalance < amountCents) {
+                    return false;
+                }
+                long toBalance = Math.addExact(toBalances[toSlot], amountCents);
+                BALANCES.setRelease(fromBalances, fromSlot, fromBalance - amountCents);
+                BALANCES.setRelease(toBalances, toSlot, toBalance);
+                return true;
+            } finally {
+                if (second != null) {
+                    second.unlock();
+                }
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    /**
+     * Latest committed balance of one account, read without locking
+     */
+    public long getBalance(int accountId) {
+        return (long) BALANCES.getAcquire(balances[stripeOf(accountId)], slotOf(accountId));
+    }
+
+    /**
+     * Sum of all balances at one instant: every stripe is locked (in order) while summing
+     */
+    public long getTotalBalance() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            // The padding slots are always zero, so summing whole arrays is exact
+            long total = 0;
+            for (long[] stripeBalances : balances) {
+                for (long balance : stripeBalances) {
+                    total += balance;
+                }
+            }
+            return total;
+        } finally {
+            for (int stripe = locks.length - 1; stripe >= 0; stripe--) {
+                locks[stripe].unlock();
+            }
+        }
+    }
+
+    public int getAccountCount() {
+        return accounts;
+    }
+
+    public int getStripeCount() {
+        return locks.length;
+    }
+
+    private int stripeOf(int accountId) {
+        checkId(accountId);
+        return accountId & stripeMask;
+    }
+
+    private int slotOf(int accountId) {
+        return PADDING + (accountId >>> stripeBits);
+    }
+
+    private void checkId(int accountId) {
+        if (accountId < 0 || accountId >= accounts) {
+            throw new IllegalArgumentException("No account " + accountId + " (accounts: " + accounts + ")");
+        }
+    }
+
+    private static void requirePositive(long amountCents) {
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amountCents);
+        }
+    }
+}
@@ -2,52 +2,74 @@ package com.shan.concurrency.threadspatterns.reentrantlock;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * BankAccount represents a shared resource that must be thread-safe.
  * Uses ReentrantLock for explicit locking with optional fairness.
+ * Each update simulates processingTime of work inside the critical section (200 ms by default).
+ * Built with a LockProfiler, the lock is an InstrumentedLock named after the account, so wait
+ * and hold times show up in the profiler's metrics.
  */
 @Slf4j
-public class BankAccount {
+public class BankAccount implements Account {
 
     private double balance;
     private final Lock lock;
     private final String accountId;
+    private final long processingMillis;
 
     public BankAccount(String accountId, double initialBalance, boolean fair) {
-        this.accountId = accountId;
-        this.balance = initialBalance;
+        this(accountId, initialBalance, fair, Duration.ofMillis(200));
+    }
+
+    /**
+     * Duration.ZERO drops the simulated work, leaving only the cost of the lock itself
+     */
+    public BankAccount(String accountId, double initialBalance, boolean fair, Duration processingTime) {
         // ReentrantLock with fairness parameter
         // fair = true: longest-waiting thread gets lock (prevents starvation)
         // fair = false: no guarantee (better performance)
-        this.lock = new ReentrantLock(fair);
+        this(accountId, initialBalance, fair, processingTime, new ReentrantLock(fair));
+    }
+
+    public BankAccount(String accountId, double initialBalance, boolean fair, Duration processingTime,
+                       LockProfiler profiler) {
+        this(accountId, initialBalance, fair, processingTime, profiler.newLock(accountId, fair));
+    }
+
+    private BankAccount(String accountId, double initialBalance, boolean fair, Duration processingTime, Lock lock) {
+        this.accountId = accountId;
+        this.processingMillis = processingTime.toMillis();
+        this.balance = initialBalance;
+        this.lock = lock;
         log.info("BankAccount '{}' created with balance ${} (Fair mode: {})",
                 accountId, initialBalance, fair);
     }
 
+    @Override
     public void deposit(double amount, String transactionId) {
         // Acquire lock
         lock.lock();
         try {
-            log.info("[{}] {} LOCKED | Depositing ${} (Current: ${}) | Waiting threads: {}",
+            log.info("[{}] {} LOCKED | Depositing ${} (Current: ${})",
                     Thread.currentThread().getName(),
                     transactionId,
                     amount,
-                    balance,
-                    ((ReentrantLock) lock).getQueueLength());
+                    balance);
 
             // Simulate processing time
-            Thread.sleep(200);
+            simulateProcessing();
 
             balance += amount;
 
-            log.info("[{}] {} COMPLETED | New balance: ${} | Hold count: {}",
+            log.info("[{}] {} COMPLETED | New balance: ${}",
                     Thread.currentThread().getName(),
                     transactionId,
-                    balance,
-                    ((ReentrantLock) lock).getHoldCount());
+                    balance);
 
         } catch (InterruptedException e) {
             log.error("[{}] {} interrupted", Thread.currentThread().getName(), transactionId);
@@ -59,17 +81,17 @@ public class BankAccount {
         }
     }
 
+    @Override
     public void withdraw(double amount, String transactionId) {
         lock.lock();
         try {
-            log.info("[{}] {} LOCKED | Withdrawing ${} (Current: ${}) | Waiting threads: {}",
+            log.info("[{}] {} LOCKED | Withdrawing ${} (Current: ${})",
                     Thread.currentThread().getName(),
                     transactionId,
                     amount,
-                    balance,
-                    ((ReentrantLock) lock).getQueueLength());
+                    balance);
 
-            Thread.sleep(200);
+            simulateProcessing();
 
             if (balance >= amount) {
                 balance -= amount;
@@ -89,6 +111,7 @@ public class BankAccount {
         }
     }
 
+    @Override
     public double getBalance() {
         lock.lock();
         try {
@@ -97,4 +120,16 @@ public class BankAccount {
             lock.unlock();
         }
     }
+
+    @Override
+    public boolean[] applyBatch(List<BankTransaction> transactions) {
+        return BankTransaction.applyBatch(lock, processingMillis, transactions,
+                () -> balance, newBalance -> balance = newBalance);
+    }
+
+    private void simulateProcessing() throws InterruptedException {
+        if (processingMillis > 0) {
+            Thread.sleep(processingMillis);
+        }
+    }
 }
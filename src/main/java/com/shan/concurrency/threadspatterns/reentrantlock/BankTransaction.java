@@ -1,16 +1,24 @@
 package com.shan.concurrency.threadspatterns.reentrantlock;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Lock;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+
 /**
  * BankTransaction represents a banking transaction (deposit or withdrawal).
  */
 @Slf4j
+@Getter
 @AllArgsConstructor
 public class BankTransaction implements Runnable {
 
-    private final BankAccount account;
+    private final Account account;
     private final String transactionId;
     private final TransactionType type;
     private final double amount;
@@ -26,6 +34,47 @@ public class BankTransaction implements Runnable {
         }
     }
 
+    /**
+     * The body of Account.applyBatch for every lock variant: under writeLock, pay the simulated
+     * work once for the whole batch (like one fsync for a group commit), then net the batch
+     * against the balance as if its transactions ran one by one - a withdrawal succeeds if the
+     * running balance covers it.
+     *
+     * @throws CancellationException if interrupted before the batch was applied (nothing changes)
+     */
+    static boolean[] applyBatch(Lock writeLock, long processingMillis, List<BankTransaction> transactions,
+                                DoubleSupplier balance, DoubleConsumer newBalance) {
+        boolean[] results = new boolean[transactions.size()];
+        writeLock.lock();
+        try {
+            if (processingMillis > 0) {
+                Thread.sleep(processingMillis);
+            }
+            double before = balance.getAsDouble();
+            double running = before;
+            for (int i = 0; i < transactions.size(); i++) {
+                BankTransaction transaction = transactions.get(i);
+                if (transaction.type == TransactionType.DEPOSIT) {
+                    running += transaction.amount;
+                    results[i] = true;
+                } else if (running >= transaction.amount) {
+                    running -= transaction.amount;
+                    results[i] = true;
+                }
+            }
+            newBalance.accept(running);
+            log.info("[{}] BATCH of {} COMMITTED | Balance: ${} -> ${}",
+                    Thread.currentThread().getName(), transactions.size(), before, running);
+            return results;
+        } catch (InterruptedException e) {
+            log.error("[{}] Batch of {} interrupted", Thread.currentThread().getName(), transactions.size());
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Batch of " + transactions.size() + " interrupted before commit");
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     public enum TransactionType {
         DEPOSIT, WITHDRAW
     }
@@ -0,0 +1,359 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import com.shan.concurrency.threadspatterns.blockingqueue.LatencyHistogram;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * InstrumentedLock is a ReentrantLock that measures itself: how long threads waited for it, how
+ * long they held it, how often it was contended and how many threads were queued behind it.
+ *
+ * How it works:
+ * - Every acquisition first tries tryLock(); if that succeeds it is only counted - no clock is
+ *   read for the wait (a fair lock skips the attempt while threads are queued)
+ * - Otherwise the queue length is sampled, the thread parks in the real lock, and the time from
+ *   the first attempt to acquisition is recorded as wait time
+ * - Hold time runs from the outermost acquisition to the matching unlock(). It is measured for
+ *   every contended acquisition and for one in holdSampleInterval uncontended ones, since two
+ *   System.nanoTime() calls cost more than an uncontended lock/unlock pair
+ * - Reentrant acquisitions are counted separately and never timed
+ * - While the lock is held only timestamps are kept, in plain fields of the owning thread; the
+ *   histograms and counters are updated after the outermost unlock() has released it, so the
+ *   bookkeeping does not lengthen the hold other threads are waiting for
+ *
+ * Time spent in Condition.await() counts as hold time: await() releases the lock without going
+ * through unlock(), so the awaiting thread saves its hold fields (the next owner overwrites them)
+ * and restores them once it has reacquired the lock.
+ */
+public class InstrumentedLock implements Lock {
+
+    private final String name;
+    private final ReentrantLock delegate;
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+    private final LatencyHistogram holdHistogram = new LatencyHistogram();
+    // Queue lengths are counts, not nanoseconds - the histogram layout works for any long
+    private final LatencyHistogram queueLengthHistogram = new LatencyHistogram();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder reentrantAcquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final int holdSampleInterval;
+
+    // Written and read by the owning thread only, recorded on the outermost unlock().
+    // acquiredAt 0 = this hold is not timed, waited -1 = this acquisition was uncontended
+    private long acquiredAt;
+    private long waited = -1;
+    private int queueLengthAtWait;
+    private int reentrantHolds;
+    private int untimedHolds;
+
+    public InstrumentedLock(String name, boolean fair) {
+        this(name, fair, 1);
+    }
+
+    /**
+     * holdSampleInterval 1 times every hold, 16 one uncontended hold in 16
+     */
+    public InstrumentedLock(String name, boolean fair, int holdSampleInterval) {
+        if (holdSampleInterval < 1) {
+            throw new IllegalArgumentException("holdSampleInterval must be at least 1: " + holdSampleInterval);
+        }
+        this.name = name;
+        this.delegate = new ReentrantLock(fair);
+        this.holdSampleInterval = holdSampleInterval;
+    }
+
+    @Override
+    public void lock() {
+        if (tryFastPath()) {
+            return;
+        }
+        long start = System.nanoTime();
+        int queueLength = delegate.getQueueLength();
+        delegate.lock();
+        acquired(start, queueLength);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (tryFastPath()) {
+            return;
+        }
+        long start = System.nanoTime();
+        int queueLength = delegate.getQueueLength();
+        delegate.lockInterruptibly();
+        acquired(start, queueLength);
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (!delegate.tryLock()) {
+            return false;
+        }
+        acquiredUncontended();
+        return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (tryFastPath()) {
+            return true;
+        }
+        long start = System.nanoTime();
+        int queueLength = delegate.getQueueLength();
+        if (!delegate.tryLock(time, unit)) {
+            timeouts.increment();
+            return false;
+        }
+        acquired(start, queueLength);
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        // getHoldCount() is 0 for a thread that does not hold the lock; delegate.unlock() throws
+        if (delegate.getHoldCount() != 1) {
+            delegate.unlock();
+            return;
+        }
+        // Copy the owner's fields before releasing: the next owner overwrites them
+        long held = acquiredAt == 0 ? -1 : System.nanoTime() - acquiredAt;
+        long waitedNanos = waited;
+        int queueLength = queueLengthAtWait;
+        int reentrant = reentrantHolds;
+        acquiredAt = 0;
+        waited = -1;
+        reentrantHolds = 0;
+        delegate.unlock();
+
+        acquisitions.increment();
+        if (reentrant > 0) {
+            reentrantAcquisitions.add(reentrant);
+        }
+        if (waitedNanos >= 0) {
+            waitHistogram.record(waitedNanos);
+            totalWaitNanos.add(waitedNanos);
+            queueLengthHistogram.record(queueLength);
+        }
+        if (held >= 0) {
+            holdHistogram.record(held);
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        return new InstrumentedCondition(delegate.newCondition());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isFair() {
+        return delegate.isFair();
+    }
+
+    /**
+     * Outermost acquisitions, contended or not; like every counter here it is updated when the
+     * hold ends, so a lock that is held right now is not counted yet
+     */
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * Acquisitions that had to park, i.e. whose tryLock() attempt failed
+     */
+    public long getContendedAcquisitions() {
+        return waitHistogram.getTotalCount();
+    }
+
+    public long getReentrantAcquisitions() {
+        return reentrantAcquisitions.sum();
+    }
+
+    /**
+     * tryLock(time, unit) calls that gave up
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    /**
+     * Estimated from the timed holds: their mean times all acquisitions
+     */
+    public long getTotalHoldNanos() {
+        return (long) (holdHistogram.getMeanNanos() * acquisitions.sum());
+    }
+
+    public int getHoldSampleInterval() {
+        return holdSampleInterval;
+    }
+
+    /**
+     * Wait per contended acquisition
+     */
+    public LatencyHistogram getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    /**
+     * Timed holds only, see holdSampleInterval
+     */
+    public LatencyHistogram getHoldHistogram() {
+        return holdHistogram;
+    }
+
+    /**
+     * Threads already queued when a contended acquisition started to wait
+     */
+    public LatencyHistogram getQueueLengthHistogram() {
+        return queueLengthHistogram;
+    }
+
+    public void reset() {
+        waitHistogram.reset();
+        holdHistogram.reset();
+        queueLengthHistogram.reset();
+        acquisitions.reset();
+        totalWaitNanos.reset();
+        reentrantAcquisitions.reset();
+        timeouts.reset();
+    }
+
+    private boolean tryFastPath() {
+        // ReentrantLock.tryLock() barges even on a fair lock; don't jump the queue
+        if (delegate.isFair() && delegate.hasQueuedThreads() && !delegate.isHeldByCurrentThread()) {
+            return false;
+        }
+        if (!delegate.tryLock()) {
+            return false;
+        }
+        acquiredUncontended();
+        return true;
+    }
+
+    private void acquiredUncontended() {
+        if (delegate.getHoldCount() > 1) {
+            reentrantHolds++;
+            return;
+        }
+        if (++untimedHolds >= holdSampleInterval) {
+            untimedHolds = 0;
+            acquiredAt = System.nanoTime();
+        }
+    }
+
+    private void acquired(long start, int queueLength) {
+        // A contended acquisition is always the outermost one: the thread did not hold the lock
+        acquiredAt = System.nanoTime();
+        waited = acquiredAt - start;
+        queueLengthAtWait = queueLength;
+    }
+
+    /**
+     * Take the owner's hold fields out before await() releases the lock, so the next owner starts
+     * clean. null if the current thread does not hold the lock - await() then throws without
+     * releasing it
+     */
+    private HoldState saveHold() {
+        if (!delegate.isHeldByCurrentThread()) {
+            return null;
+        }
+        HoldState state = new HoldState(acquiredAt, waited, queueLengthAtWait, reentrantHolds);
+        acquiredAt = 0;
+        waited = -1;
+        reentrantHolds = 0;
+        return state;
+    }
+
+    private void restoreHold(HoldState state) {
+        if (state != null) {
+            acquiredAt = state.acquiredAt();
+            waited = state.waited();
+            queueLengthAtWait = state.queueLength();
+            reentrantHolds = state.reentrantHolds();
+        }
+    }
+
+    private record HoldState(long acquiredAt, long waited, int queueLength, int reentrantHolds) {
+    }
+
+    private class InstrumentedCondition implements Condition {
+
+        private final Condition condition;
+
+        InstrumentedCondition(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            HoldState state = saveHold();
+            try {
+                condition.await();
+            } finally {
+                restoreHold(state);
+            }
+        }
+
+        @Override
+        public void awaitUninterruptibly() {
+            HoldState state = saveHold();
+            try {
+                condition.awaitUninterruptibly();
+            } finally {
+                restoreHold(state);
+            }
+        }
+
+        @Override
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            HoldState state = saveHold();
+            try {
+                return condition.awaitNanos(nanosTimeout);
+            } finally {
+                restoreHold(state);
+            }
+        }
+
+        @Override
+        public boolean await(long time, TimeUnit unit) throws InterruptedException {
+            HoldState state = saveHold();
+            try {
+                return condition.await(time, unit);
+            } finally {
+                restoreHold(state);
+            }
+        }
+
+        @Override
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            HoldState state = saveHold();
+            try {
+                return condition.awaitUntil(deadline);
+            } finally {
+                restoreHold(state);
+            }
+        }
+
+        @Override
+        public void signal() {
+            condition.signal();
+        }
+
+        @Override
+        public void signalAll() {
+            condition.signalAll();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LockFreeAccount is the non-blocking counterpart of BankAccount: the balance is a long number
+ * of cents updated with compare-and-set, so no thread ever parks on a lock.
+ *
+ * How it works:
+ * - Reads are a single volatile load - they never wait for a writer
+ * - withdraw() reads the balance, checks for overdraft and CASes the new value in; if another
+ *   thread changed the balance in between, the CAS fails and the loop re-checks with the fresh
+ *   value, so the overdraft check and the update are atomic together
+ * - Cents in a long are exact, unlike a double balance (0.1 + 0.2 != 0.3)
+ * - Failed CAS attempts are counted as a measure of contention
+ */
+@Slf4j
+public class LockFreeAccount {
+
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(LockFreeAccount.class, "balanceCents", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String accountId;
+    private final LongAdder casRetries = new LongAdder();
+    @SuppressWarnings("unused") // Accessed through BALANCE
+    private volatile long balanceCents;
+
+    public LockFreeAccount(String accountId, long initialBalanceCents) {
+        if (initialBalanceCents < 0) {
+            throw new IllegalArgumentException("Initial balance must not be negative: " + initialBalanceCents);
+        }
+        this.accountId = accountId;
+        this.balanceCents = initialBalanceCents;
+        log.info("LockFreeAccount '{}' created with balance {}", accountId, format(initialBalanceCents));
+    }
+
+    /**
+     * Add amountCents and return the new balance
+     *
+     * @throws ArithmeticException if the balance would overflow
+     */
+    public long deposit(long amountCents) {
+        requirePositive(amountCents);
+        while (true) {
+            long current = (long) BALANCE.getVolatile(this);
+            long updated = Math.addExact(current, amountCents);
+            if (BALANCE.compareAndSet(this, current, updated)) {
+                return updated;
+            }
+            casRetries.increment();
+        }
+    }
+
+    /**
+     * Take amountCents out unless that would overdraw the account
+     *
+     * @return false (and no change) on insufficient funds
+     */
+    public boolean withdraw(long amountCents) {
+        requirePositive(amountCents);
+        while (true) {
+            long current = (long) BALANCE.getVolatile(this);
+            if (current < amountCents) {
+                return false;
+            }
+            if (BALANCE.compareAndSet(this, current, current - amountCents)) {
+                return true;
+            }
+            casRetries.increment();
+        }
+    }
+
+    public long getBalanceCents() {
+        return (long) BALANCE.getVolatile(this);
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * CAS attempts that lost a race and had to retry
+     */
+    public long getCasRetries() {
+        return casRetries.sum();
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static String format(long cents) {
+        return String.format("%s$%d.%02d", cents < 0 ? "-" : "", Math.abs(cents / 100), Math.abs(cents % 100));
+    }
+
+    private static void requirePositive(long amountCents) {
+        if (amountCents <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amountCents);
+        }
+    }
+}
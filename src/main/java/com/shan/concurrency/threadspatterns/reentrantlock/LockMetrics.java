@@ -0,0 +1,64 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Point-in-time snapshot of one InstrumentedLock, as reported by LockProfiler.
+ * Times are in nanoseconds; the counters are not read atomically together. Hold figures come
+ * from the timed (sampled) holds, so totalHoldNanos is an estimate.
+ */
+@Data
+@AllArgsConstructor
+public class LockMetrics {
+    private String name;
+    private long acquisitions;
+    private long contendedAcquisitions;
+    private long timeouts;
+    private long totalWaitNanos;
+    private long waitP50Nanos;
+    private long waitP99Nanos;
+    private long waitMaxNanos;
+    private long totalHoldNanos;
+    private long holdP50Nanos;
+    private long holdP99Nanos;
+    private long holdMaxNanos;
+    private long queueLengthP99;
+    private long queueLengthMax;
+
+    public static LockMetrics of(InstrumentedLock lock) {
+        return new LockMetrics(lock.getName(), lock.getAcquisitions(), lock.getContendedAcquisitions(),
+                lock.getTimeouts(), lock.getTotalWaitNanos(),
+                lock.getWaitHistogram().getValueAtPercentile(50), lock.getWaitHistogram().getValueAtPercentile(99),
+                lock.getWaitHistogram().getMaxNanos(), lock.getTotalHoldNanos(),
+                lock.getHoldHistogram().getValueAtPercentile(50), lock.getHoldHistogram().getValueAtPercentile(99),
+                lock.getHoldHistogram().getMaxNanos(), lock.getQueueLengthHistogram().getValueAtPercentile(99),
+                lock.getQueueLengthHistogram().getMaxNanos());
+    }
+
+    /**
+     * Share of acquisitions that had to park, in percent
+     */
+    public double getContentionPercent() {
+        return acquisitions == 0 ? 0 : 100.0 * contendedAcquisitions / acquisitions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-12s acquisitions=%d contended=%.1f%% waited=%dms (p99 %s, max %s) "
+                        + "held=%dms (p50 %s, p99 %s) queue p99=%d max=%d timeouts=%d",
+                name, acquisitions, getContentionPercent(), totalWaitNanos / 1_000_000, format(waitP99Nanos),
+                format(waitMaxNanos), totalHoldNanos / 1_000_000, format(holdP50Nanos), format(holdP99Nanos),
+                queueLengthP99, queueLengthMax, timeouts);
+    }
+
+    private static String format(long nanos) {
+        if (nanos < 10_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 10_000_000) {
+            return nanos / 1_000 + "us";
+        }
+        return nanos / 1_000_000 + "ms";
+    }
+}
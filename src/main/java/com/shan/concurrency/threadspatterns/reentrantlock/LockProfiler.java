@@ -0,0 +1,143 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LockProfiler hands out InstrumentedLocks by name and aggregates them, so lock contention can be
+ * read as numbers per lock instead of from getQueueLength() log lines on every operation.
+ *
+ * How it works:
+ * - newLock(name, fair) creates and registers a lock; a BankAccount built with a profiler uses
+ *   its account id as the lock name. Uncontended holds are timed one in
+ *   threads-patterns.reentrantlock.profiler.hold-sample-interval (contended ones always)
+ * - metrics() snapshots every lock, hottest first (most total time threads spent parked on it)
+ * - summary(limit) formats the hottest locks, one line each
+ * - With threads-patterns.reentrantlock.profiler.summary-interval above zero (or after
+ *   startPeriodicSummary) the summary is logged at that interval from a daemon thread
+ */
+@Slf4j
+@Component
+public class LockProfiler implements AutoCloseable {
+
+    public static final int DEFAULT_SUMMARY_LIMIT = 10;
+    public static final int DEFAULT_HOLD_SAMPLE_INTERVAL = 16;
+
+    private final Map<String, InstrumentedLock> locks = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lock-profiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int holdSampleInterval;
+    private ScheduledFuture<?> periodicSummary;
+
+    /**
+     * Duration.ZERO leaves periodic logging off
+     */
+    public LockProfiler(@Value("${threads-patterns.reentrantlock.profiler.summary-interval:0s}") Duration summaryInterval,
+                        @Value("${threads-patterns.reentrantlock.profiler.hold-sample-interval:"
+                                + DEFAULT_HOLD_SAMPLE_INTERVAL + "}") int holdSampleInterval) {
+        if (holdSampleInterval < 1) {
+            throw new IllegalArgumentException("holdSampleInterval must be at least 1: " + holdSampleInterval);
+        }
+        this.holdSampleInterval = holdSampleInterval;
+        if (!summaryInterval.isZero() && !summaryInterval.isNegative()) {
+            startPeriodicSummary(summaryInterval);
+        }
+    }
+
+    /**
+     * Create and register a lock; fails if the name is already taken
+     */
+    public InstrumentedLock newLock(String name, boolean fair) {
+        InstrumentedLock lock = new InstrumentedLock(name, fair, holdSampleInterval);
+        if (locks.putIfAbsent(name, lock) != null) {
+            throw new IllegalStateException("Lock '" + name + "' is already registered");
+        }
+        return lock;
+    }
+
+    /**
+     * Stop tracking a lock, e.g. when its account is closed
+     */
+    public void unregister(String name) {
+        locks.remove(name);
+    }
+
+    public LockMetrics metrics(String name) {
+        InstrumentedLock lock = locks.get(name);
+        if (lock == null) {
+            throw new IllegalArgumentException("No lock named '" + name + "'");
+        }
+        return LockMetrics.of(lock);
+    }
+
+    /**
+     * All locks, most total wait time first
+     */
+    public List<LockMetrics> metrics() {
+        List<LockMetrics> metrics = new ArrayList<>();
+        locks.values().forEach(lock -> metrics.add(LockMetrics.of(lock)));
+        metrics.sort(Comparator.comparingLong(LockMetrics::getTotalWaitNanos).reversed());
+        return metrics;
+    }
+
+    /**
+     * One line per lock for the limit hottest locks, for periodic logging
+     */
+    public String summary(int limit) {
+        List<LockMetrics> metrics = metrics();
+        long totalWaitNanos = 0;
+        for (LockMetrics lock : metrics) {
+            totalWaitNanos += lock.getTotalWaitNanos();
+        }
+        StringBuilder summary = new StringBuilder(String.format("%d locks, %d ms parked in total",
+                metrics.size(), totalWaitNanos / 1_000_000));
+        for (LockMetrics lock : metrics.subList(0, Math.min(limit, metrics.size()))) {
+            summary.append(System.lineSeparator()).append("  ").append(lock);
+        }
+        return summary.toString();
+    }
+
+    public void reset() {
+        locks.values().forEach(InstrumentedLock::reset);
+    }
+
+    /**
+     * Log summary(DEFAULT_SUMMARY_LIMIT) every interval, replacing any earlier schedule
+     */
+    public synchronized void startPeriodicSummary(Duration interval) {
+        stopPeriodicSummary();
+        long millis = Math.max(1, interval.toMillis());
+        periodicSummary = scheduler.scheduleAtFixedRate(
+                () -> log.info("[{}] Lock contention: {}", Thread.currentThread().getName(),
+                        summary(DEFAULT_SUMMARY_LIMIT)),
+                millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopPeriodicSummary() {
+        if (periodicSummary != null) {
+            periodicSummary.cancel(false);
+            periodicSummary = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        stopPeriodicSummary();
+        scheduler.shutdownNow();
+    }
+}
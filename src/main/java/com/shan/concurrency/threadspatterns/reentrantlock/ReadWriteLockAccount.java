@@ -0,0 +1,93 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ReadWriteLockAccount guards the balance with a ReentrantReadWriteLock: any number of
+ * getBalance() calls run together, deposits and withdrawals are exclusive.
+ *
+ * Readers still write to the lock's shared state to register themselves, so under heavy read
+ * traffic they contend on that cache line even though they never wait for each other.
+ */
+@Slf4j
+public class ReadWriteLockAccount implements Account {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final String accountId;
+    private final long processingMillis;
+    private double balance;
+
+    public ReadWriteLockAccount(String accountId, double initialBalance, Duration processingTime) {
+        this.accountId = accountId;
+        this.balance = initialBalance;
+        this.processingMillis = processingTime.toMillis();
+        log.info("ReadWriteLockAccount '{}' created with balance ${}", accountId, initialBalance);
+    }
+
+    @Override
+    public void deposit(double amount, String transactionId) {
+        lock.writeLock().lock();
+        try {
+            simulateProcessing();
+            balance += amount;
+            log.info("[{}] {} COMPLETED | New balance: ${}",
+                    Thread.currentThread().getName(), transactionId, balance);
+        } catch (InterruptedException e) {
+            log.error("[{}] {} interrupted", Thread.currentThread().getName(), transactionId);
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void withdraw(double amount, String transactionId) {
+        lock.writeLock().lock();
+        try {
+            simulateProcessing();
+            if (balance >= amount) {
+                balance -= amount;
+                log.info("[{}] {} COMPLETED | New balance: ${}",
+                        Thread.currentThread().getName(), transactionId, balance);
+            } else {
+                log.warn("[{}] {} FAILED | Insufficient funds (Balance: ${}, Requested: ${})",
+                        Thread.currentThread().getName(), transactionId, balance, amount);
+            }
+        } catch (InterruptedException e) {
+            log.error("[{}] {} interrupted", Thread.currentThread().getName(), transactionId);
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public double getBalance() {
+        lock.readLock().lock();
+        try {
+            return balance;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    @Override
+    public boolean[] applyBatch(List<BankTransaction> transactions) {
+        return BankTransaction.applyBatch(lock.writeLock(), processingMillis, transactions,
+                () -> balance, newBalance -> balance = newBalance);
+    }
+
+    private void simulateProcessing() throws InterruptedException {
+        if (processingMillis > 0) {
+            Thread.sleep(processingMillis);
+        }
+    }
+}
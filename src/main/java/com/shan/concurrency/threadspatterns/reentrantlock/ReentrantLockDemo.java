@@ -1,11 +1,19 @@
 package com.shan.concurrency.threadspatterns.reentrantlock;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ReentrantLock Demo - Thread-Safe Bank Account
@@ -19,17 +27,257 @@ import java.util.concurrent.TimeUnit;
  * 3. Execute critical section
  * 4. ALWAYS call unlock() in finally block
  * 5. Advantages over synchronized: tryLock(), interruptible, fairness, lock monitoring
+ * 6. LockFreeAccount: long cents + compare-and-set instead of a lock - reads never block
+ * 7. AccountStore: one lock per stripe of accounts; transfers lock both stripes in a fixed order
+ * 8. Read-mostly accounts: ReentrantReadWriteLock or StampedLock optimistic reads (configurable)
+ * 9. GroupCommitProcessor: queued transactions for a hot account commit as one batch per lock
+ * 10. LockProfiler: InstrumentedLock wait/hold histograms per account reveal the hot ones
  */
 @Slf4j
 @Component
 public class ReentrantLockDemo {
 
     private static final int NUMBER_OF_TRANSACTIONS = 8;
+    private static final int LOCK_FREE_THREADS = 4;
+    private static final int LOCK_FREE_OPERATIONS = 10_000; // Per thread
+    private static final int STORE_ACCOUNTS = 1_000_000;
+    private static final int TRANSFERS_PER_THREAD = 100_000;
+    private static final int READER_THREADS = 3;
+    private static final int DASHBOARD_DEPOSITS = 5;
+    private static final int GROUP_COMMIT_TRANSACTIONS = 400; // Per thread
+    private static final int PROFILED_ACCOUNTS = 5;
+    private static final int PROFILED_TRANSACTIONS = 100; // Per thread
+
+    private final AccountLocking accountLocking;
+    private final LockProfiler lockProfiler;
+
+    public ReentrantLockDemo(@Value("${threads-patterns.reentrantlock.account-locking:STAMPED_LOCK}")
+                             AccountLocking accountLocking, LockProfiler lockProfiler) {
+        this.accountLocking = accountLocking;
+        this.lockProfiler = lockProfiler;
+    }
 
     public void demonstrate() {
         log.info("=== ReentrantLock Demo: Thread-Safe Bank Account ===");
         demonstrateWithFairness(false);
         demonstrateWithFairness(true);
+        demonstrateLockFree();
+        demonstrateTransfers();
+        demonstrateReadMostly();
+        demonstrateGroupCommit();
+        demonstrateLockProfiling();
+    }
+
+    private void demonstrateLockProfiling() {
+        log.info("\n--- Lock profiling: {} accounts, most transactions on the first ---", PROFILED_ACCOUNTS);
+
+        // The application's profiler: its configured summary interval reports these accounts
+        // while the demo runs, and they are unregistered at the end so the demo can run again
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < PROFILED_ACCOUNTS; i++) {
+            accounts.add(new BankAccount("ACC-10" + i, 1000.0, false, Duration.ofMillis(1), lockProfiler));
+        }
+        try {
+            ExecutorService executor = Executors.newFixedThreadPool(LOCK_FREE_THREADS);
+
+            for (int t = 0; t < LOCK_FREE_THREADS; t++) {
+                int thread = t;
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < PROFILED_TRANSACTIONS; i++) {
+                        // 80% of the traffic hits ACC-100
+                        BankAccount account = random.nextInt(100) < 80
+                                ? accounts.get(0)
+                                : accounts.get(1 + random.nextInt(PROFILED_ACCOUNTS - 1));
+                        BankTransaction.TransactionType type = (i & 1) == 0
+                                ? BankTransaction.TransactionType.DEPOSIT
+                                : BankTransaction.TransactionType.WITHDRAW;
+                        new BankTransaction(account, "TX-P" + thread + "-" + i, type, 10.0).run();
+                    }
+                });
+            }
+            executor.shutdown();
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                log.error("Executor termination interrupted", e);
+                Thread.currentThread().interrupt();
+            }
+
+            log.info("Final lock contention: {}", lockProfiler.summary(PROFILED_ACCOUNTS));
+            log.info("Hottest lock: {}", lockProfiler.metrics().get(0).getName());
+        } finally {
+            for (int i = 0; i < PROFILED_ACCOUNTS; i++) {
+                lockProfiler.unregister("ACC-10" + i);
+            }
+        }
+        log.info("=== Lock Profiling Test Completed ===\n");
+    }
+
+    private void demonstrateGroupCommit() {
+        log.info("\n--- Group commit: {} transactions against one hot account ---",
+                LOCK_FREE_THREADS * GROUP_COMMIT_TRANSACTIONS);
+
+        // 2 ms of simulated work per lock acquisition: one by one this alone would take 3.2 s
+        Account account = new BankAccount("ACC-004", 1000.0, false, Duration.ofMillis(2));
+        GroupCommitProcessor processor = new GroupCommitProcessor();
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(LOCK_FREE_THREADS);
+
+        long startTime = System.nanoTime();
+        for (int t = 0; t < LOCK_FREE_THREADS; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                List<CompletableFuture<Boolean>> results = new ArrayList<>();
+                for (int i = 0; i < GROUP_COMMIT_TRANSACTIONS; i++) {
+                    BankTransaction.TransactionType type = i % 3 == 0
+                            ? BankTransaction.TransactionType.DEPOSIT
+                            : BankTransaction.TransactionType.WITHDRAW;
+                    results.add(processor.submit(new BankTransaction(account, "TX-G" + thread + "-" + i, type, 10.0)));
+                }
+                for (CompletableFuture<Boolean> result : results) {
+                    (result.join() ? accepted : rejected).incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            log.error("Executor termination interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+
+        log.info("{} accepted, {} rejected (insufficient funds) in {} ms | {} batches, average {}, largest {}",
+                accepted.get(), rejected.get(), elapsedMillis, processor.getBatchCount(),
+                String.format("%.1f", processor.getAverageBatchSize()), processor.getLargestBatch());
+        log.info("Final balance: ${}", account.getBalance());
+        log.info("=== Group Commit Test Completed ===\n");
+    }
+
+    private void demonstrateReadMostly() {
+        log.info("\n--- Read-mostly account ({}): dashboards polling while deposits run ---", accountLocking);
+
+        Account account = accountLocking.create("ACC-003", 1000.0, Duration.ofMillis(20));
+        AtomicLong reads = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(READER_THREADS + 1);
+
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 1; i <= DASHBOARD_DEPOSITS; i++) {
+                account.deposit(10.0, "TX-DASH-" + i);
+            }
+        });
+        for (int r = 0; r < READER_THREADS; r++) {
+            executor.submit(() -> {
+                while (!writer.isDone()) {
+                    account.getBalance();
+                    reads.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            log.error("Executor termination interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+
+        log.info("{} balance reads by {} readers during {} deposits | Final balance: ${}",
+                reads.get(), READER_THREADS, DASHBOARD_DEPOSITS, account.getBalance());
+        if (account instanceof StampedLockAccount stamped) {
+            log.info("Optimistic reads retried under the read lock: {}", stamped.getOptimisticReadFailures());
+        }
+        log.info("=== Read-mostly Test Completed ===\n");
+    }
+
+    private void demonstrateTransfers() {
+        log.info("\n--- AccountStore: {} accounts, transfers across lock stripes ---", STORE_ACCOUNTS);
+
+        AccountStore store = new AccountStore(STORE_ACCOUNTS, LockFreeAccount.toCents(100.0));
+        long totalBefore = store.getTotalBalance();
+        AtomicLong completed = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(LOCK_FREE_THREADS);
+
+        long startTime = System.nanoTime();
+        for (int t = 0; t < LOCK_FREE_THREADS; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    // Half of the transfers go between accounts 0 and 1 in both directions -
+                    // the classic deadlock without lock ordering
+                    int from = (i & 1) == 0 ? random.nextInt(2) : random.nextInt(STORE_ACCOUNTS);
+                    int to = (i & 1) == 0 ? 1 - from : random.nextInt(STORE_ACCOUNTS);
+                    if (store.transfer(from, to, 1 + random.nextInt(5000))) {
+                        completed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+                throw new IllegalStateException("Transfers did not finish in 30 s - lock ordering deadlock?");
+            }
+        } catch (InterruptedException e) {
+            log.error("Executor termination interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        long totalAfter = store.getTotalBalance();
+        long attempted = (long) LOCK_FREE_THREADS * TRANSFERS_PER_THREAD;
+        log.info("{} transfers ({} completed) over {} stripes in {} ms ({} transfers/s)",
+                attempted, completed.get(), store.getStripeCount(), elapsedNanos / 1_000_000,
+                attempted * 1_000_000_000L / Math.max(1, elapsedNanos));
+        log.info("Total balance before: {}, after: {} (conserved: {})",
+                LockFreeAccount.format(totalBefore), LockFreeAccount.format(totalAfter), totalBefore == totalAfter);
+        if (totalBefore != totalAfter) {
+            throw new IllegalStateException("Transfers changed the total balance");
+        }
+        log.info("=== AccountStore Test Completed ===\n");
+    }
+
+    private void demonstrateLockFree() {
+        log.info("\n--- Lock-free account: CAS on long cents ---");
+
+        long initialCents = LockFreeAccount.toCents(1000.0);
+        LockFreeAccount account = new LockFreeAccount("ACC-002", initialCents);
+        AtomicLong deposited = new AtomicLong();
+        AtomicLong withdrawn = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(LOCK_FREE_THREADS);
+
+        long startTime = System.nanoTime();
+        for (int t = 0; t < LOCK_FREE_THREADS; t++) {
+            executor.submit(() -> {
+                // Withdrawals outweigh deposits, so the overdraft check is exercised under contention
+                for (int i = 0; i < LOCK_FREE_OPERATIONS; i++) {
+                    account.deposit(100);
+                    deposited.addAndGet(100);
+                    if (account.withdraw(150)) {
+                        withdrawn.addAndGet(150);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            log.error("Executor termination interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+
+        long expected = initialCents + deposited.get() - withdrawn.get();
+        log.info("{} operations in {} ms | Final balance: {} (expected {}, consistent: {}) | CAS retries: {}",
+                2L * LOCK_FREE_THREADS * LOCK_FREE_OPERATIONS, elapsedMillis,
+                LockFreeAccount.format(account.getBalanceCents()), LockFreeAccount.format(expected),
+                account.getBalanceCents() == expected && expected >= 0, account.getCasRetries());
+        log.info("=== Lock-free Test Completed ===\n");
     }
 
     private void demonstrateWithFairness(boolean fair) {
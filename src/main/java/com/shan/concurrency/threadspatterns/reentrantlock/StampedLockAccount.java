@@ -0,0 +1,114 @@
+package com.shan.concurrency.threadspatterns.reentrantlock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * StampedLockAccount serves balance reads with StampedLock optimistic reads, for read-mostly
+ * traffic such as dashboards polling balances.
+ *
+ * How it works:
+ * - getBalance() takes a stamp without locking, reads the balance, then validate()s the stamp;
+ *   if no write lock was taken in between, the read is done without writing any shared state
+ * - If a writer got in (or holds the lock), the read is retried under a real read lock
+ * - Writers take the exclusive write lock, which invalidates outstanding optimistic stamps
+ * - StampedLock is not reentrant, so nothing inside a locked section may call back in here
+ */
+@Slf4j
+public class StampedLockAccount implements Account {
+
+    private final StampedLock lock = new StampedLock();
+    private final LongAdder optimisticReadFailures = new LongAdder();
+    private final String accountId;
+    private final long processingMillis;
+    private double balance;
+
+    public StampedLockAccount(String accountId, double initialBalance, Duration processingTime) {
+        this.accountId = accountId;
+        this.balance = initialBalance;
+        this.processingMillis = processingTime.toMillis();
+        log.info("StampedLockAccount '{}' created with balance ${}", accountId, initialBalance);
+    }
+
+    @Override
+    public void deposit(double amount, String transactionId) {
+        long stamp = lock.writeLock();
+        try {
+            simulateProcessing();
+            balance += amount;
+            log.info("[{}] {} COMPLETED | New balance: ${}",
+                    Thread.currentThread().getName(), transactionId, balance);
+        } catch (InterruptedException e) {
+            log.error("[{}] {} interrupted", Thread.currentThread().getName(), transactionId);
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void withdraw(double amount, String transactionId) {
+        long stamp = lock.writeLock();
+        try {
+            simulateProcessing();
+            if (balance >= amount) {
+                balance -= amount;
+                log.info("[{}] {} COMPLETED | New balance: ${}",
+                        Thread.currentThread().getName(), transactionId, balance);
+            } else {
+                log.warn("[{}] {} FAILED | Insufficient funds (Balance: ${}, Requested: ${})",
+                        Thread.currentThread().getName(), transactionId, balance, amount);
+            }
+        } catch (InterruptedException e) {
+            log.error("[{}] {} interrupted", Thread.currentThread().getName(), transactionId);
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public double getBalance() {
+        long stamp = lock.tryOptimisticRead();
+        double current = balance;
+        if (lock.validate(stamp)) {
+            return current;
+        }
+
+        // A writer was active: fall back to a blocking read lock
+        optimisticReadFailures.increment();
+        stamp = lock.readLock();
+        try {
+            return balance;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Optimistic reads that had to be retried under the read lock
+     */
+    public long getOptimisticReadFailures() {
+        return optimisticReadFailures.sum();
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    @Override
+    public boolean[] applyBatch(List<BankTransaction> transactions) {
+        return BankTransaction.applyBatch(lock.asWriteLock(), processingMillis, transactions,
+                () -> balance, newBalance -> balance = newBalance);
+    }
+
+    private void simulateProcessing() throws InterruptedException {
+        if (processingMillis > 0) {
+            Thread.sleep(processingMillis);
+        }
+    }
+}
@@ -1,20 +1,180 @@
 package com.shan.concurrency.threadspatterns.blockingqueue;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class BlockingQueueDemoTest {
 
+    private static final int RING_CAPACITY = 64; // Small, so the sequences wrap many times
+    private static final int ELEMENTS_PER_PRODUCER = 50_000;
+
     @Autowired
     private BlockingQueueDemo blockingQueueDemo;
 
+    @TempDir
+    private Path tempDir;
+
     @Test
     void testBlockingQueueDemo() {
         assertDoesNotThrow(() -> blockingQueueDemo.demonstrate(),
                 "BlockingQueue demo should execute without throwing exceptions");
     }
+
+    @Test
+    void testSpscRingBufferQueueKeepsOrder() {
+        SpscRingBufferQueue<Integer> queue = new SpscRingBufferQueue<>(RING_CAPACITY);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            ExecutorService producer = Executors.newSingleThreadExecutor();
+            producer.submit(() -> {
+                for (int i = 0; i < ELEMENTS_PER_PRODUCER; i++) {
+                    queue.put(i);
+                }
+                return null;
+            });
+            for (int i = 0; i < ELEMENTS_PER_PRODUCER; i++) {
+                assertEquals(i, queue.take(), "SPSC queue should hand out elements in insertion order");
+            }
+            producer.shutdown();
+        }, "SPSC queue should not lose elements");
+
+        assertTrue(queue.isEmpty(), "Every element should have been taken exactly once");
+    }
+
+    @Test
+    void testMpscRingBufferQueueLosesAndDuplicatesNothing() {
+        int producers = 4;
+        MpscRingBufferQueue<Integer> queue = new MpscRingBufferQueue<>(RING_CAPACITY);
+        BitSet seen = new BitSet(producers * ELEMENTS_PER_PRODUCER);
+        int[] lastPerProducer = new int[producers];
+        Arrays.fill(lastPerProducer, -1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            ExecutorService executor = Executors.newFixedThreadPool(producers);
+            List<Future<?>> results = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * ELEMENTS_PER_PRODUCER;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < ELEMENTS_PER_PRODUCER; i++) {
+                        queue.put(base + i);
+                    }
+                    return null;
+                }));
+            }
+            for (int n = 0; n < producers * ELEMENTS_PER_PRODUCER; n++) {
+                int value = queue.take();
+                int producer = value / ELEMENTS_PER_PRODUCER;
+                int index = value % ELEMENTS_PER_PRODUCER;
+                assertFalse(seen.get(value), "Element " + value + " was taken twice");
+                assertTrue(index > lastPerProducer[producer],
+                        "Elements of one producer should keep their order");
+                seen.set(value);
+                lastPerProducer[producer] = index;
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            executor.shutdown();
+        }, "MPSC queue should not lose elements");
+
+        assertEquals(producers * ELEMENTS_PER_PRODUCER, seen.cardinality(), "Every element should arrive");
+        assertTrue(queue.isEmpty(), "Nothing should be left behind");
+    }
+
+    @Test
+    void testLogJournalRoundTripAcrossSegments() throws Exception {
+        int records = 3_000; // About 150 bytes each: several 64 KB segments
+        String padding = "x".repeat(100);
+
+        try (LogJournal journal = new LogJournal(tempDir, LogJournal.MIN_SEGMENT_SIZE, Duration.ofSeconds(1),
+                FsyncPolicy.NEVER)) {
+            for (int i = 0; i < records / 2; i++) {
+                journal.append(LogEntry.of(LogLevel.values()[i % LogLevel.values().length], "journal-test",
+                        "record " + i + " " + padding));
+            }
+        }
+        // Reopening continues after the last record
+        try (LogJournal journal = new LogJournal(tempDir, LogJournal.MIN_SEGMENT_SIZE, Duration.ofSeconds(1),
+                FsyncPolicy.NEVER)) {
+            for (int i = records / 2; i < records; i++) {
+                journal.append(LogEntry.of(LogLevel.values()[i % LogLevel.values().length], "journal-test",
+                        "record " + i + " " + padding));
+            }
+        }
+        assertTrue(LogJournal.listSegments(tempDir).size() > 2, "Records should span several segments");
+
+        LogJournalReader reader = new LogJournalReader(tempDir);
+        List<String> messages = new ArrayList<>();
+        List<LogLevel> levels = new ArrayList<>();
+        while (reader.poll(entry -> {
+            assertEquals("journal-test", entry.getSource());
+            messages.add(entry.getMessage());
+            levels.add(entry.getLevel());
+        }, 100) > 0) {
+            // Keep polling until the reader has caught up
+        }
+
+        assertEquals(records, messages.size(), "Every record should be read back once");
+        for (int i = 0; i < records; i++) {
+            assertEquals("record " + i + " " + padding, messages.get(i), "Records should keep their order");
+            assertEquals(LogLevel.values()[i % LogLevel.values().length], levels.get(i));
+        }
+    }
+
+    @Test
+    void testLatencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99), "An empty histogram reports 0");
+
+        for (long nanos = 1; nanos <= 10_000; nanos++) {
+            histogram.record(nanos * 1_000); // 1 us .. 10 ms, evenly
+        }
+
+        assertEquals(10_000, histogram.getTotalCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        assertEquals(5_000_500.0, histogram.getMeanNanos(), 0.001);
+        assertWithinBucket(5_000_000, histogram.getValueAtPercentile(50));
+        assertWithinBucket(9_900_000, histogram.getValueAtPercentile(99));
+        assertWithinBucket(9_990_000, histogram.getValueAtPercentile(99.9));
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100), "p100 is the maximum");
+
+        // Values below 64 have exact buckets
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(3, 90);
+        small.record(40, 10);
+        assertEquals(3, small.getValueAtPercentile(90));
+        assertEquals(40, small.getValueAtPercentile(91));
+
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    /**
+     * A reported percentile is the upper bound of its bucket: never below the recorded value and
+     * at most about 3% above it
+     */
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.04,
+                "Expected about " + expected + " (bucket upper bound), got " + actual);
+    }
 }
@@ -4,7 +4,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class ReentrantLockDemoTest {
@@ -17,4 +30,129 @@ class ReentrantLockDemoTest {
         assertDoesNotThrow(() -> reentrantLockDemo.demonstrate(),
                 "ReentrantLock demo should execute without throwing exceptions");
     }
+
+    @Test
+    void testAccountStoreTransfersConserveTotalWithoutDeadlock() {
+        AccountStore store = new AccountStore(64, 10_000, 8);
+        long totalBefore = store.getTotalBalance();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int t = 0; t < 8; t++) {
+                boolean forward = t % 2 == 0;
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 50_000; i++) {
+                        // Opposite directions between two stripes (0 <-> 1) and within one (0 <-> 8)
+                        int other = (i & 1) == 0 ? 1 : 8;
+                        store.transfer(forward ? 0 : other, forward ? other : 0, 1 + random.nextInt(500));
+                        store.transfer(random.nextInt(64), random.nextInt(64), 1 + random.nextInt(500));
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "Transfers should not deadlock");
+        }, "Opposite transfers should not deadlock");
+
+        assertEquals(totalBefore, store.getTotalBalance(), "Transfers should conserve the total balance");
+    }
+
+    @Test
+    void testInterruptedGroupCommitCombinerCompletesEveryFuture() throws InterruptedException {
+        BankAccount account = new BankAccount("ACC-INT", 1000.0, false, Duration.ofMillis(200));
+        GroupCommitProcessor processor = new GroupCommitProcessor(1);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        CompletableFuture<CompletableFuture<Boolean>> combinerResult = new CompletableFuture<>();
+        Thread combiner = new Thread(() -> combinerResult.complete(processor.submit(
+                new BankTransaction(account, "TX-I0", BankTransaction.TransactionType.DEPOSIT, 10.0))), "combiner");
+        combiner.start();
+
+        // Wait until the combiner sleeps inside its batch, so the submits below only enqueue
+        while (combiner.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+        for (int i = 1; i <= 5; i++) {
+            results.add(processor.submit(
+                    new BankTransaction(account, "TX-I" + i, BankTransaction.TransactionType.DEPOSIT, 10.0)));
+        }
+        combiner.interrupt();
+        combiner.join();
+        results.add(combinerResult.join());
+
+        // The combiner's submit() has returned, so nobody is left to commit what is still queued
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue(result.isCompletedExceptionally(),
+                    "Every future should complete once the combiner was interrupted");
+        }
+        assertEquals(1000.0, account.getBalance(), "Failed batches should leave the balance alone");
+    }
+
+    @Test
+    void testGroupCommitResultsMatchSequentialApplication() throws InterruptedException {
+        BankAccount account = new BankAccount("ACC-GC", 100.0, false, Duration.ZERO);
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        // Holds the first batch until everything else is queued, so the rest commits in full batches
+        Account gated = new Account() {
+            @Override
+            public void deposit(double amount, String transactionId) {
+                account.deposit(amount, transactionId);
+            }
+
+            @Override
+            public void withdraw(double amount, String transactionId) {
+                account.withdraw(amount, transactionId);
+            }
+
+            @Override
+            public double getBalance() {
+                return account.getBalance();
+            }
+
+            @Override
+            public boolean[] applyBatch(List<BankTransaction> transactions) {
+                if (firstBatchStarted.getCount() > 0) {
+                    firstBatchStarted.countDown();
+                    try {
+                        releaseFirstBatch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return account.applyBatch(transactions);
+            }
+        };
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<BankTransaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            BankTransaction.TransactionType type = random.nextInt(3) == 0
+                    ? BankTransaction.TransactionType.DEPOSIT
+                    : BankTransaction.TransactionType.WITHDRAW;
+            transactions.add(new BankTransaction(gated, "TX-S" + i, type, 1 + random.nextInt(50)));
+        }
+
+        GroupCommitProcessor processor = new GroupCommitProcessor(16);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        CompletableFuture<CompletableFuture<Boolean>> combinerResult = new CompletableFuture<>();
+        Thread combiner = new Thread(() -> combinerResult.complete(processor.submit(transactions.get(0))), "combiner");
+        combiner.start();
+        firstBatchStarted.await();
+        for (int i = 1; i < transactions.size(); i++) {
+            results.add(processor.submit(transactions.get(i)));
+        }
+        releaseFirstBatch.countDown();
+        combiner.join();
+        results.add(0, combinerResult.join());
+
+        // The same transactions one by one against a fresh account
+        BankAccount sequential = new BankAccount("ACC-SEQ", 100.0, false, Duration.ZERO);
+        for (int i = 0; i < transactions.size(); i++) {
+            boolean expected = sequential.applyBatch(List.of(transactions.get(i)))[0];
+            assertEquals(expected, results.get(i).join(), "Transaction " + i + " should succeed or fail as it would alone");
+        }
+        assertEquals(sequential.getBalance(), account.getBalance(), "Batches should end on the sequential balance");
+        assertTrue(processor.getBatchCount() < transactions.size(), "The queued transactions should commit in batches");
+    }
 }